@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionOpsBenchmark {
+    @Param({"10", "1000", "1000000"})
+    public int size;
+
+    private List<Integer> list;
+    private Set<Integer> left;
+    private Set<Integer> right;
+
+    @Setup
+    public void setup() {
+        list = Fixtures.ints(size);
+        left = CollectionOps.setOf(list);
+        right = CollectionOps.setOf(CollectionOps.filter(list, i -> i % 3 == 0));
+    }
+
+    @Benchmark
+    public Map<Integer, List<Integer>> groupBy() {
+        return CollectionOps.groupBy(list, i -> i % 16);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> countBy() {
+        return CollectionOps.countBy(list, i -> i % 16);
+    }
+
+    @Benchmark
+    public String mkString() {
+        return CollectionOps.mkString(list, ",");
+    }
+
+    @Benchmark
+    public int size() {
+        return CollectionOps.size(list);
+    }
+
+    @Benchmark
+    public boolean forall() {
+        return CollectionOps.forall(list, i -> i >= 0);
+    }
+
+    @Benchmark
+    public boolean exists() {
+        return CollectionOps.exists(list, i -> i < 0);
+    }
+
+    @Benchmark
+    public Optional<Integer> headOption() {
+        return CollectionOps.headOption(list);
+    }
+
+    @Benchmark
+    public List<Integer> newArrayList() {
+        return CollectionOps.newArrayList(list);
+    }
+
+    @Benchmark
+    public Set<Integer> difference() {
+        return CollectionOps.difference(left, right);
+    }
+}
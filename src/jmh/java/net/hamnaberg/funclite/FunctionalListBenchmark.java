@@ -0,0 +1,74 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FunctionalListBenchmark {
+    @Param({"10", "1000", "1000000"})
+    public int size;
+
+    private FunctionalList<Integer> list;
+
+    @Setup
+    public void setup() {
+        list = FunctionalList.copyOf(Fixtures.ints(size));
+    }
+
+    @Benchmark
+    public FunctionalList<Integer> map() {
+        return list.map(i -> i + 1);
+    }
+
+    @Benchmark
+    public FunctionalList<Integer> filter() {
+        return list.filter(i -> (i & 1) == 0);
+    }
+
+    @Benchmark
+    public FunctionalList<Integer> flatMap() {
+        return list.flatMap(i -> Optional.some(i));
+    }
+
+    @Benchmark
+    public void tail(Blackhole bh) {
+        FunctionalList<Integer> current = list;
+        for (int i = 0; i < 10 && !current.isEmpty(); i++) {
+            current = current.tail();
+            bh.consume(current.head());
+        }
+    }
+
+    @Benchmark
+    public FunctionalList<Integer> sortThenTake100() {
+        return list.sorted(Comparator.<Integer>reverseOrder()).take(100);
+    }
+
+    @Benchmark
+    public FunctionalList<Integer> top100() {
+        return list.topK(100, Comparator.<Integer>naturalOrder());
+    }
+}
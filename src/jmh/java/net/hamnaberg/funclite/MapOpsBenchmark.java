@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapOpsBenchmark {
+    @Param({"10", "1000", "1000000"})
+    public int size;
+
+    private Map<Integer, Integer> map;
+    private FunctionalMap<Integer, Integer> withDefault;
+    private int missingKey;
+
+    @Setup
+    public void setup() {
+        map = MapOps.newHashMap();
+        for (Integer i : Fixtures.ints(size)) {
+            map.put(i, i);
+        }
+        withDefault = FunctionalMap.create(map, -1);
+        missingKey = -size;
+    }
+
+    @Benchmark
+    public Map<Integer, String> mapValues() {
+        return MapOps.mapValues(map, String::valueOf);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> filter() {
+        return MapOps.filter(map, e -> (e.getValue() & 1) == 0);
+    }
+
+    @Benchmark
+    public Integer getWithDefaultHit() {
+        return withDefault.get(size / 2);
+    }
+
+    @Benchmark
+    public Integer getWithDefaultMiss() {
+        return withDefault.get(missingKey);
+    }
+}
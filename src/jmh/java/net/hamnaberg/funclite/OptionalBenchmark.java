@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionalBenchmark {
+    @Param({"10", "1000", "1000000"})
+    public int size;
+
+    private List<Optional<Integer>> optionals;
+
+    @Setup
+    public void setup() {
+        optionals = CollectionOps.newArrayList();
+        for (Integer i : Fixtures.ints(size)) {
+            optionals.add(i % 4 == 0 ? Optional.<Integer>none() : Optional.some(i));
+        }
+    }
+
+    @Benchmark
+    public void map(Blackhole bh) {
+        for (Optional<Integer> o : optionals) {
+            bh.consume(o.map(i -> i + 1));
+        }
+    }
+
+    @Benchmark
+    public void flatMap(Blackhole bh) {
+        for (Optional<Integer> o : optionals) {
+            bh.consume(o.flatMap(i -> Optional.some(i + 1)));
+        }
+    }
+
+    @Benchmark
+    public void iterator(Blackhole bh) {
+        for (Optional<Integer> o : optionals) {
+            for (Integer i : o) {
+                bh.consume(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Thrown when elements of an async map fail. {@link #getFailures()} maps the index of each
+ * failed element to its error; the cause is the error of the first index.
+ */
+public class AsyncMapException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final SortedMap<Integer, Throwable> failures;
+
+    public AsyncMapException(Map<Integer, Throwable> failures) {
+        this(new TreeMap<>(failures));
+    }
+
+    private AsyncMapException(TreeMap<Integer, Throwable> failures) {
+        super(message(failures), failures.isEmpty() ? null : failures.firstEntry().getValue());
+        this.failures = Collections.unmodifiableSortedMap(failures);
+        for (Throwable failure : failures.tailMap(failures.isEmpty() ? 0 : failures.firstKey(), false).values()) {
+            addSuppressed(failure);
+        }
+    }
+
+    public SortedMap<Integer, Throwable> getFailures() {
+        return failures;
+    }
+
+    private static String message(Map<Integer, Throwable> failures) {
+        return failures.size() == 1 ? String.format("Element %s failed", failures.keySet().iterator().next())
+                : String.format("%s elements failed", failures.size());
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Maps a list through {@code f} on an executor with at most {@code maxConcurrency} elements in
+ * flight, keeping results in input order.
+ *
+ * A new element is started each time one completes. Starts go through a drain loop so that an
+ * executor which runs tasks on the calling thread does not recurse once per element.
+ */
+final class AsyncMapper<A, B> {
+    private static final Method VIRTUAL_EXECUTOR = virtualExecutorFactory();
+
+    private final List<A> input;
+    private final Function<A, B> f;
+    private final Executor executor;
+    private final AsyncSpec spec;
+    private final Object[] results;
+    private final Throwable[] errors;
+    private final AtomicInteger remaining;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final CompletableFuture<FunctionalList<B>> result = new CompletableFuture<>();
+    private int next;
+
+    private AsyncMapper(List<A> input, Function<A, B> f, Executor executor, AsyncSpec spec) {
+        this.input = input;
+        this.f = f;
+        this.executor = executor;
+        this.spec = spec;
+        this.results = new Object[input.size()];
+        this.errors = new Throwable[input.size()];
+        this.remaining = new AtomicInteger(input.size());
+    }
+
+    static <A, B> CompletableFuture<FunctionalList<B>> map(List<A> input, Function<A, B> f, Executor executor, AsyncSpec spec) {
+        if (input.isEmpty()) {
+            return CompletableFuture.completedFuture(FunctionalList.<B>empty());
+        }
+        List<A> list = input instanceof RandomAccess ? input : new ArrayList<>(input);
+        AsyncMapper<A, B> mapper = new AsyncMapper<>(list, f, executor, spec);
+        for (int i = 0, n = Math.min(spec.getMaxConcurrency(), input.size()); i < n; i++) {
+            mapper.startNext();
+        }
+        return mapper.result;
+    }
+
+    /**
+     * Runs on virtual threads when the runtime has them, otherwise on a pool of
+     * {@code maxConcurrency} daemon threads. Either way the executor is shut down afterwards.
+     */
+    static <A, B> FunctionalList<B> mapBlocking(List<A> input, Function<A, B> f, AsyncSpec spec) {
+        ExecutorService executor = ioExecutor(Math.min(spec.getMaxConcurrency(), Math.max(1, input.size())));
+        try {
+            return map(input, f, executor, spec).get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for async map", e);
+        }
+        catch (ExecutionException e) {
+            throw (AsyncMapException) e.getCause();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void startNext() {
+        if (pending.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            int i = next;
+            if (i < results.length && !result.isDone()) {
+                next = i + 1;
+                try {
+                    executor.execute(new Task(i));
+                }
+                catch (RuntimeException e) {
+                    completed(i, null, e);
+                }
+            }
+        } while (pending.decrementAndGet() != 0);
+    }
+
+    private void completed(int index, B value, Throwable error) {
+        if (error == null) {
+            results[index] = value;
+        }
+        else {
+            errors[index] = error;
+            if (spec.getErrors() == AsyncSpec.Errors.FAIL_FAST) {
+                result.completeExceptionally(new AsyncMapException(Collections.singletonMap(index, error)));
+                return;
+            }
+        }
+        if (remaining.decrementAndGet() == 0) {
+            finish();
+        }
+        else {
+            startNext();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void finish() {
+        Map<Integer, Throwable> failures = new HashMap<>();
+        for (int i = 0; i < errors.length; i++) {
+            if (errors[i] != null) {
+                failures.put(i, errors[i]);
+            }
+        }
+        if (failures.isEmpty()) {
+            result.complete(FunctionalList.create((List<B>) Arrays.asList(results)));
+        }
+        else {
+            result.completeExceptionally(new AsyncMapException(failures));
+        }
+    }
+
+    private final class Task implements Runnable {
+        private final int index;
+        private Thread runner;
+        private boolean done;
+        private ScheduledFuture<?> timeout;
+
+        Task(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                runner = Thread.currentThread();
+                if (spec.hasTimeout()) {
+                    timeout = Timeouts.SCHEDULER.schedule(this::timedOut, spec.getTimeoutNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            B value = null;
+            Throwable error = null;
+            try {
+                value = f.apply(input.get(index));
+            }
+            catch (Throwable t) {
+                error = t;
+            }
+            synchronized (this) {
+                runner = null;
+                if (done) {
+                    // timed out: swallow the interrupt meant for this element
+                    Thread.interrupted();
+                    return;
+                }
+                done = true;
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+            }
+            completed(index, value, error);
+        }
+
+        private void timedOut() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                if (runner != null) {
+                    runner.interrupt();
+                }
+            }
+            completed(index, null, new TimeoutException(String.format("Element %s timed out", index)));
+        }
+    }
+
+    private static ExecutorService ioExecutor(int threads) {
+        if (VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            }
+            catch (ReflectiveOperationException ignore) {
+                // fall through to a platform pool
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "funclite-io-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Method virtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        }
+        catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static final class Timeouts {
+        static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "funclite-async-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            SCHEDULER.setRemoveOnCancelPolicy(true);
+        }
+    }
+}
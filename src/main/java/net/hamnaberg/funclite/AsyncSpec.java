@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration for {@link FunctionalList#mapAsync(java.util.function.Function, java.util.concurrent.Executor, AsyncSpec)}
+ * and {@link FunctionalList#parMapIO(java.util.function.Function, AsyncSpec)}.
+ */
+public final class AsyncSpec {
+    public enum Errors {
+        /** Fail with the first error and stop starting new elements. */
+        FAIL_FAST,
+        /** Run every element, then fail with all errors if there were any. */
+        COLLECT
+    }
+
+    private final int maxConcurrency;
+    private final long timeoutNanos;
+    private final Errors errors;
+
+    private AsyncSpec(int maxConcurrency, long timeoutNanos, Errors errors) {
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutNanos = timeoutNanos;
+        this.errors = errors;
+    }
+
+    public static AsyncSpec maxConcurrency(int maxConcurrency) {
+        Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be positive, was %s", maxConcurrency);
+        return new AsyncSpec(maxConcurrency, 0, Errors.FAIL_FAST);
+    }
+
+    /**
+     * Fails an element with a {@link java.util.concurrent.TimeoutException} if it has not completed
+     * within the given time. The thread running it is interrupted.
+     */
+    public AsyncSpec timeout(long duration, TimeUnit unit) {
+        Preconditions.checkArgument(duration > 0, "duration must be positive, was %s", duration);
+        return new AsyncSpec(maxConcurrency, unit.toNanos(duration), errors);
+    }
+
+    public AsyncSpec errors(Errors errors) {
+        return new AsyncSpec(maxConcurrency, timeoutNanos, Objects.requireNonNull(errors));
+    }
+
+    int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    Errors getErrors() {
+        return errors;
+    }
+
+    boolean hasTimeout() {
+        return timeoutNanos > 0;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Fixed-size Bloom filter for approximate membership in bounded memory. {@link #put(Object)}
+ * never reports a previously added value as new, but may report a new value as already seen
+ * with probability close to the configured false positive rate, once about
+ * {@code expectedInsertions} values have been added.
+ *
+ * Bit positions come from one mixed 64-bit hash and its rotation (double hashing). The default hash
+ * spreads {@code hashCode()}, which only has 32 bits of entropy; for billions of values supply
+ * a 64-bit hash instead, e.g. {@code BloomFilter.create(n, 0.01, Long::longValue)} for long ids.
+ *
+ * Not thread-safe.
+ */
+public final class BloomFilter<T> {
+    private final long[] bits;
+    private final long bitSize;
+    private final int hashes;
+    private final ToLongFunction<? super T> hash;
+
+    private BloomFilter(long bitSize, int hashes, ToLongFunction<? super T> hash) {
+        this.bits = new long[Math.toIntExact((bitSize + 63) >>> 6)];
+        this.bitSize = (long) bits.length << 6;
+        this.hashes = hashes;
+        this.hash = hash;
+    }
+
+    public static <T> BloomFilter<T> create(long expectedInsertions, double falsePositiveRate) {
+        return create(expectedInsertions, falsePositiveRate, t -> t == null ? 0L : t.hashCode());
+    }
+
+    /**
+     * @param hash a 64-bit hash of each value; it is mixed before use, so identity-like hashes are fine
+     */
+    public static <T> BloomFilter<T> create(long expectedInsertions, double falsePositiveRate, ToLongFunction<? super T> hash) {
+        Preconditions.checkArgument(expectedInsertions > 0, "expectedInsertions must be positive, was %s", expectedInsertions);
+        Preconditions.checkArgument(falsePositiveRate > 0 && falsePositiveRate < 1, "falsePositiveRate must be in (0, 1), was %s", falsePositiveRate);
+        double ln2 = Math.log(2);
+        long bitSize = Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        int hashes = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * ln2));
+        return new BloomFilter<T>(bitSize, hashes, hash);
+    }
+
+    /**
+     * @return true if {@code value} was definitely not in the filter before this call
+     */
+    public boolean put(T value) {
+        long h1 = mix(hash.applyAsLong(value));
+        long h2 = Long.rotateLeft(h1, 32);
+        boolean changed = false;
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public boolean mightContain(T value) {
+        long h1 = mix(hash.applyAsLong(value));
+        long h2 = Long.rotateLeft(h1, 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashes;
+    }
+
+    private long index(long combined) {
+        return (combined & Long.MAX_VALUE) % bitSize;
+    }
+
+    /** Stafford variant 13 of the splitmix64 finalizer. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
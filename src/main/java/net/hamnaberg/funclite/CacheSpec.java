@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Configuration for {@link Functions#memoize(java.util.function.Function, CacheSpec)}.
+ */
+public final class CacheSpec {
+    public enum Eviction {
+        /** Evict the least recently used entry. */
+        LRU,
+        /**
+         * Keep a small LRU window for new entries and only let an entry leaving the window into
+         * the main area if it has been requested more often than the entry it would replace.
+         */
+        TINY_LFU
+    }
+
+    private static final CacheSpec UNBOUNDED = new CacheSpec(Long.MAX_VALUE, 0, Eviction.TINY_LFU, System::nanoTime);
+
+    private final long maximumSize;
+    private final long expireAfterWriteNanos;
+    private final Eviction eviction;
+    private final LongSupplier ticker;
+
+    private CacheSpec(long maximumSize, long expireAfterWriteNanos, Eviction eviction, LongSupplier ticker) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+        this.eviction = eviction;
+        this.ticker = ticker;
+    }
+
+    public static CacheSpec unbounded() {
+        return UNBOUNDED;
+    }
+
+    public static CacheSpec maximumSize(long maximumSize) {
+        return unbounded().withMaximumSize(maximumSize);
+    }
+
+    public CacheSpec withMaximumSize(long maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "maximumSize must be positive, was %s", maximumSize);
+        return new CacheSpec(maximumSize, expireAfterWriteNanos, eviction, ticker);
+    }
+
+    public CacheSpec expireAfterWrite(long duration, TimeUnit unit) {
+        Preconditions.checkArgument(duration > 0, "duration must be positive, was %s", duration);
+        return new CacheSpec(maximumSize, unit.toNanos(duration), eviction, ticker);
+    }
+
+    public CacheSpec eviction(Eviction eviction) {
+        return new CacheSpec(maximumSize, expireAfterWriteNanos, Objects.requireNonNull(eviction), ticker);
+    }
+
+    CacheSpec ticker(LongSupplier ticker) {
+        return new CacheSpec(maximumSize, expireAfterWriteNanos, eviction, ticker);
+    }
+
+    long getMaximumSize() {
+        return maximumSize;
+    }
+
+    long getExpireAfterWriteNanos() {
+        return expireAfterWriteNanos;
+    }
+
+    Eviction getEviction() {
+        return eviction;
+    }
+
+    LongSupplier getTicker() {
+        return ticker;
+    }
+
+    boolean isBounded() {
+        return maximumSize != Long.MAX_VALUE;
+    }
+
+    boolean isExpiring() {
+        return expireAfterWriteNanos > 0;
+    }
+}
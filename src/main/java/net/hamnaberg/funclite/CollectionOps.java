@@ -17,7 +17,16 @@
 package net.hamnaberg.funclite;
 
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -26,6 +35,8 @@ import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class CollectionOps {
+    private static final int PAR_THRESHOLD = 1024;
+    private static final int ESTIMATED_ELEMENT_LENGTH = 8;
 
     public static <A> List<A> of(A... values) {
         return Arrays.asList(values);
@@ -36,8 +47,19 @@ public class CollectionOps {
     }
 
     public static <A> ArrayList<A> newArrayList(Iterable<A> iterable) {
+        Object copy = CopyEvents.begin();
+        ArrayList<A> list = copyToList(iterable);
+        CopyEvents.end(copy, "CollectionOps.newArrayList", list.size());
+        return list;
+    }
+
+    static <A> ArrayList<A> copyToList(Iterable<A> iterable) {
+        Iterable<A> source = unwrap(iterable);
+        if (source instanceof Collection) {
+            return new ArrayList<A>((Collection<A>) source);
+        }
         ArrayList<A> list = newArrayList();
-        addAll(list, iterable);
+        addAll(list, source);
         return list;
     }
 
@@ -46,9 +68,24 @@ public class CollectionOps {
     }
 
     public static <A, B> List<B> map(final List<A> list, final Function<A, B> f) {
-        List<B> toList = newArrayList();
-        for (A a : list) {
-            toList.add(f.apply(a));
+        long start = Metrics.start();
+        List<B> result = mapList(list, f);
+        Metrics.record("CollectionOps.map", start, list, result);
+        return result;
+    }
+
+    private static <A, B> List<B> mapList(final List<A> list, final Function<A, B> f) {
+        List<A> source = (List<A>) unwrap(list);
+        List<B> toList = new ArrayList<B>(source.size());
+        if (source instanceof RandomAccess) {
+            for (int i = 0, size = source.size(); i < size; i++) {
+                toList.add(f.apply(source.get(i)));
+            }
+        }
+        else {
+            for (A a : source) {
+                toList.add(f.apply(a));
+            }
         }
         return Collections.unmodifiableList(toList);
     }
@@ -66,7 +103,10 @@ public class CollectionOps {
     }
 
     public static <A, B> List<B> flatMap(final Iterable<A> list, final Function<A, Iterable<B>> f) {
-        return Collections.unmodifiableList(stream(list).flatMap(i -> stream(f.apply(i))).collect(Collectors.toList()));
+        long start = Metrics.start();
+        List<B> result = Collections.unmodifiableList(stream(list).flatMap(i -> stream(f.apply(i))).collect(Collectors.toList()));
+        Metrics.record("CollectionOps.flatMap", start, list, result);
+        return result;
     }
 
     public static <A> List<A> flatten(final Iterable<Iterable<A>> list) {
@@ -74,6 +114,13 @@ public class CollectionOps {
     }
 
     public static <A> List<A> filter(final Iterable<A> list, final Predicate<A> f) {
+        long start = Metrics.start();
+        List<A> result = filterList(list, f);
+        Metrics.record("CollectionOps.filter", start, list, result);
+        return result;
+    }
+
+    static <A> List<A> filterList(final Iterable<A> list, final Predicate<A> f) {
         return Collections.unmodifiableList(stream(list).filter(f).collect(Collectors.toList()));
     }
 
@@ -86,10 +133,63 @@ public class CollectionOps {
     }
 
     public static <V> String mkString(Iterable<V> iterable,String start, String separator, String end){
-        return StreamSupport.stream(iterable.spliterator(), false).
-                filter(a -> a != null).
-                map(Object::toString).
-                collect(Collectors.joining(separator, start, end));
+        StringBuilder builder = new StringBuilder(estimateLength(iterable, start, separator, end));
+        return mkStringTo(iterable, builder, start, separator, end).toString();
+    }
+
+    public static <V, A extends Appendable> A mkStringTo(Iterable<V> iterable, A appendable, String start, String separator, String end) {
+        try {
+            appendTo(iterable, appendable, start, separator, end);
+            return appendable;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static <V> ByteBuffer mkStringTo(Iterable<V> iterable, ByteBuffer buffer, Charset charset, String start, String separator, String end) {
+        EncodingAppendable appendable = new EncodingAppendable(charset, buffer, null);
+        try {
+            appendTo(iterable, appendable, start, separator, end);
+            appendable.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer;
+    }
+
+    public static <V> void mkStringTo(Iterable<V> iterable, WritableByteChannel channel, Charset charset, String start, String separator, String end) throws IOException {
+        EncodingAppendable appendable = new EncodingAppendable(charset, ByteBuffer.allocate(8192), channel);
+        appendTo(iterable, appendable, start, separator, end);
+        appendable.finish();
+    }
+
+    private static <V> void appendTo(Iterable<V> iterable, Appendable appendable, String start, String separator, String end) throws IOException {
+        appendable.append(start);
+        boolean first = true;
+        for (V v : iterable) {
+            if (v == null) {
+                continue;
+            }
+            if (!first) {
+                appendable.append(separator);
+            }
+            first = false;
+            appendable.append(v instanceof CharSequence ? (CharSequence) v : v.toString());
+        }
+        appendable.append(end);
+    }
+
+    /**
+     * Sizes the builder from the element count alone; looking at the elements would mean
+     * producing every one of them twice.
+     */
+    private static <V> int estimateLength(Iterable<V> iterable, String start, String separator, String end) {
+        long estimate = start.length() + end.length();
+        if (iterable instanceof Collection) {
+            int size = ((Collection<V>) iterable).size();
+            estimate += (long) Math.max(size - 1, 0) * separator.length() + (long) size * ESTIMATED_ELEMENT_LENGTH;
+        }
+        return (int) Math.min(estimate, Integer.MAX_VALUE - 8);
     }
 
     public static Iterable<String> split(String input, String separator) {
@@ -102,8 +202,57 @@ public class CollectionOps {
         }
     }
 
+    public static Splitter splitter(char separator) {
+        return Splitter.on(separator);
+    }
+
+    public static Splitter splitter(String separator) {
+        return Splitter.on(separator);
+    }
+
     public static <K, V> Map<K, List<V>> groupBy(Iterable<V> iterable, Function<V, K> grouper) {
-        return stream(iterable).collect(Collectors.groupingBy(grouper));
+        long start = Metrics.start();
+        Map<K, List<V>> result = stream(iterable).collect(Collectors.groupingBy(grouper));
+        Metrics.record("CollectionOps.groupBy", start, iterable, result);
+        return result;
+    }
+
+    /**
+     * Groups on a parallel stream into a concurrent map. Elements within a group are not kept in encounter order.
+     */
+    public static <K, V> ConcurrentMap<K, List<V>> parGroupBy(Iterable<V> iterable, Function<V, K> grouper) {
+        return parallelStream(iterable).collect(Collectors.groupingByConcurrent(grouper));
+    }
+
+    /**
+     * @throws NullPointerException if {@code value} returns null; null keys are allowed
+     */
+    public static <A, K, B> Map<K, B> groupMapReduce(Iterable<A> iterable, Function<A, K> key, Function<A, B> value, Monoid<B> m) {
+        Map<K, B> map = new HashMap<>();
+        for (A a : iterable) {
+            B b = Objects.requireNonNull(value.apply(a), "groupMapReduce does not accept null values");
+            map.merge(key.apply(a), b, m::append);
+        }
+        return map;
+    }
+
+    public static <A, K, B> Map<K, B> parGroupMapReduce(Iterable<A> iterable, Function<A, K> key, Function<A, B> value, Monoid<B> m) {
+        return parGroupMapReduce(iterable, key, value, m, ForkJoinPool.commonPool());
+    }
+
+    public static <A, K, B> Map<K, B> parGroupMapReduce(Iterable<A> iterable, Function<A, K> key, Function<A, B> value, Monoid<B> m, ForkJoinPool pool) {
+        return forkJoin(iterable, pool, chunk -> groupMapReduce(chunk, key, value, m), (left, right) -> {
+            if (left.size() < right.size()) {
+                for (Map.Entry<K, B> entry : left.entrySet()) {
+                    right.merge(entry.getKey(), entry.getValue(), (r, l) -> m.append(l, r));
+                }
+                return right;
+            }
+            for (Map.Entry<K, B> entry : right.entrySet()) {
+                left.merge(entry.getKey(), entry.getValue(), m::append);
+            }
+            return left;
+        });
     }
 
     public static <A> Stream<A> stream(Iterable<A> it) {
@@ -115,26 +264,99 @@ public class CollectionOps {
     }
 
     public static <A> boolean forall(final Iterable<A> iterable, Predicate<A> pred) {
-        return stream(iterable).allMatch(pred);
+        return !exists(iterable, Predicates.not(pred));
     }
 
     public static <A> boolean exists(final Iterable<A> iterable, Predicate<A> pred) {
-        return stream(iterable).anyMatch(pred);
+        return !forEachWhile(iterable, a -> !pred.test(a));
     }
 
+    /**
+     * @return the first non-null element matching {@code f}; null elements are skipped without
+     *         being passed to {@code f}, since they cannot be returned as an {@link Optional}
+     */
     public static <A> Optional<A> find(final Iterable<A> coll, final Predicate<A> f) {
-        return OptionalOps.fromJavaOptional(stream(coll).filter(f).findFirst());
+        Iterable<A> source = unwrap(coll);
+        if (source instanceof Optional) {
+            return ((Optional<A>) source).filter(f);
+        }
+        Object[] found = {null};
+        forEachWhile(source, a -> {
+            if (a != null && f.test(a)) {
+                found[0] = a;
+                return false;
+            }
+            return true;
+        });
+        @SuppressWarnings("unchecked")
+        A result = (A) found[0];
+        return Optional.fromNullable(result);
+    }
+
+    /**
+     * Passes each element to {@code p} until it returns false, looping directly over the
+     * source where possible instead of going through an {@link Iterator}.
+     *
+     * @return true if every element was visited
+     */
+    public static <A> boolean forEachWhile(Iterable<A> iterable, Predicate<A> p) {
+        Iterable<A> source = unwrap(iterable);
+        if (source instanceof InternalIterable) {
+            @SuppressWarnings("unchecked")
+            InternalIterable<A> internal = (InternalIterable<A>) source;
+            return internal.forEachWhile(p);
+        }
+        if (isRandomAccess(source)) {
+            List<A> list = (List<A>) source;
+            for (int i = 0, size = list.size(); i < size; i++) {
+                if (!p.test(list.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (A a : source) {
+            if (!p.test(a)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public static <A> Optional<A> headOption(final Iterable<A> coll) {
-        return find(coll, Predicates.alwaysTrue());
+        Iterable<A> source = unwrap(coll);
+        if (source instanceof Optional) {
+            return (Optional<A>) source;
+        }
+        if (isRandomAccess(source)) {
+            List<A> list = (List<A>) source;
+            return list.isEmpty() ? Optional.<A>none() : Optional.fromNullable(list.get(0));
+        }
+        Iterator<A> iterator = source.iterator();
+        return iterator.hasNext() ? Optional.fromNullable(iterator.next()) : Optional.<A>none();
     }
 
     public static <A> int size(Iterable<A> iterable) {
-        return (int) stream(iterable).count();
+        if (iterable instanceof Collection) {
+            return ((Collection<A>) iterable).size();
+        }
+        if (iterable instanceof Optional) {
+            return ((Optional<A>) iterable).isSome() ? 1 : 0;
+        }
+        int size = 0;
+        for (Iterator<A> it = iterable.iterator(); it.hasNext(); it.next()) {
+            size++;
+        }
+        return size;
     }
 
     public static <A>  boolean isEmpty(Iterable<A> iterable) {
+        if (iterable instanceof Collection) {
+            return ((Collection<A>) iterable).isEmpty();
+        }
+        if (iterable instanceof Optional) {
+            return ((Optional<A>) iterable).isNone();
+        }
         return !iterable.iterator().hasNext();
     }
 
@@ -148,17 +370,109 @@ public class CollectionOps {
     }
 
     public static <A> Set<A> setOf(Iterable<A> values) {
-        LinkedHashSet<A> set = newLinkedHashSet();
+        LinkedHashSet<A> set = values instanceof Collection ? new LinkedHashSet<A>(hashCapacity(((Collection<A>) values).size())) : CollectionOps.<A>newLinkedHashSet();
         addAll(set, values);
         return set;
     }
 
     public static <A> void foreach(Iterable<A> iterable, Consumer<A> effect) {
-        stream(iterable).forEach(effect);
+        forEachWhile(iterable, a -> {
+            effect.accept(a);
+            return true;
+        });
+    }
+
+    /**
+     * @return the first occurrence of each element, in encounter order
+     */
+    public static <A> List<A> distinct(Iterable<A> iterable) {
+        return distinctBy(iterable, Function.<A>identity());
+    }
+
+    /**
+     * @return the first element for each key, in encounter order
+     */
+    public static <A, K> List<A> distinctBy(Iterable<A> iterable, Function<A, K> key) {
+        Set<K> seen = iterable instanceof Collection ? new HashSet<K>(hashCapacity(((Collection<A>) iterable).size())) : new HashSet<K>();
+        return keep(iterable, a -> seen.add(key.apply(a)));
+    }
+
+    /**
+     * Approximate dedupe in the memory of {@code filter}. No duplicate is ever kept, but a false
+     * positive in the filter drops an element that had not been seen. The filter keeps its state,
+     * so it can be shared across batches.
+     */
+    public static <A> List<A> distinct(Iterable<A> iterable, BloomFilter<? super A> filter) {
+        return keep(iterable, filter::put);
+    }
+
+    public static <A, K> List<A> distinctBy(Iterable<A> iterable, Function<A, K> key, BloomFilter<? super K> filter) {
+        return keep(iterable, a -> filter.put(key.apply(a)));
+    }
+
+    /** set algebra **/
+
+    public static <A> Set<A> union(Set<A> left, Set<A> right) {
+        return union(left, right, true);
+    }
+
+    /**
+     * @param ordered if true the result is a {@link LinkedHashSet} with the elements of {@code left}
+     *                followed by the new elements of {@code right}, otherwise a {@link HashSet}
+     */
+    public static <A> Set<A> union(Set<A> left, Set<A> right, boolean ordered) {
+        if (!ordered && left instanceof IntSet && right instanceof IntSet) {
+            return cast(((IntSet) left).union((IntSet) right));
+        }
+        Set<A> set = newSet(left.size() + right.size(), ordered);
+        set.addAll(left);
+        set.addAll(right);
+        return set;
+    }
+
+    public static <A> Set<A> intersection(Set<A> left, Set<A> right) {
+        return intersection(left, right, true);
+    }
+
+    /**
+     * @param ordered if true the result keeps the order of {@code left}; otherwise the smaller
+     *                set is the one iterated and the result is a {@link HashSet}
+     */
+    public static <A> Set<A> intersection(Set<A> left, Set<A> right, boolean ordered) {
+        if (!ordered && left instanceof IntSet && right instanceof IntSet) {
+            return cast(((IntSet) left).intersection((IntSet) right));
+        }
+        Set<A> source = ordered || left.size() <= right.size() ? left : right;
+        Set<A> other = source == left ? right : left;
+        Set<A> set = newSet(Math.min(left.size(), right.size()), ordered);
+        for (A a : source) {
+            if (other.contains(a)) {
+                set.add(a);
+            }
+        }
+        return set;
     }
 
     public static <A> Set<A> difference(Set<A> left, Set<A> right) {
-        Set<A> set = CollectionOps.newLinkedHashSet();
+        return difference(left, right, true);
+    }
+
+    /**
+     * @param ordered if true the result keeps the order of {@code left} in a {@link LinkedHashSet},
+     *                otherwise it is a {@link HashSet}
+     */
+    public static <A> Set<A> difference(Set<A> left, Set<A> right, boolean ordered) {
+        if (!ordered && left instanceof IntSet && right instanceof IntSet) {
+            return cast(((IntSet) left).difference((IntSet) right));
+        }
+        if (right.size() < left.size()) {
+            Set<A> set = copySet(left, ordered);
+            for (A a : right) {
+                set.remove(a);
+            }
+            return set;
+        }
+        Set<A> set = newSet(left.size(), ordered);
         for (A a : left) {
             if (!right.contains(a)) {
                 set.add(a);
@@ -167,6 +481,73 @@ public class CollectionOps {
         return set;
     }
 
+    public static <A> Set<A> symmetricDifference(Set<A> left, Set<A> right) {
+        return symmetricDifference(left, right, true);
+    }
+
+    /**
+     * @param ordered if true the result holds the elements only in {@code left}, in order, followed by
+     *                the elements only in {@code right}; otherwise the larger set is copied and the smaller
+     *                one iterated into a {@link HashSet}
+     */
+    public static <A> Set<A> symmetricDifference(Set<A> left, Set<A> right, boolean ordered) {
+        if (!ordered && left instanceof IntSet && right instanceof IntSet) {
+            return cast(((IntSet) left).symmetricDifference((IntSet) right));
+        }
+        Set<A> larger = ordered || left.size() >= right.size() ? left : right;
+        Set<A> smaller = larger == left ? right : left;
+        Set<A> set = copySet(larger, ordered);
+        for (A a : smaller) {
+            if (!set.remove(a)) {
+                set.add(a);
+            }
+        }
+        return set;
+    }
+
+    public static <A> Set<A> parIntersection(Set<A> left, Set<A> right) {
+        return parIntersection(left, right, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Filters the smaller set in parallel chunks. The result is an unordered {@link HashSet}.
+     */
+    public static <A> Set<A> parIntersection(Set<A> left, Set<A> right, ForkJoinPool pool) {
+        if (left instanceof IntSet && right instanceof IntSet) {
+            return cast(((IntSet) left).intersection((IntSet) right));
+        }
+        Set<A> source = left.size() <= right.size() ? left : right;
+        Set<A> other = source == left ? right : left;
+        return parFilterSet(source, a -> other.contains(a), pool);
+    }
+
+    public static <A> Set<A> parDifference(Set<A> left, Set<A> right) {
+        return parDifference(left, right, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Filters {@code left} in parallel chunks. The result is an unordered {@link HashSet}.
+     */
+    public static <A> Set<A> parDifference(Set<A> left, Set<A> right, ForkJoinPool pool) {
+        if (left instanceof IntSet && right instanceof IntSet) {
+            return cast(((IntSet) left).difference((IntSet) right));
+        }
+        return parFilterSet(left, a -> !right.contains(a), pool);
+    }
+
+    public static <A> Set<A> parSymmetricDifference(Set<A> left, Set<A> right) {
+        return parSymmetricDifference(left, right, ForkJoinPool.commonPool());
+    }
+
+    public static <A> Set<A> parSymmetricDifference(Set<A> left, Set<A> right, ForkJoinPool pool) {
+        if (left instanceof IntSet && right instanceof IntSet) {
+            return cast(((IntSet) left).symmetricDifference((IntSet) right));
+        }
+        Set<A> set = parDifference(left, right, pool);
+        set.addAll(parDifference(right, left, pool));
+        return set;
+    }
+
     public static <A> A reduce(Iterable<A> iterable, Semigroup<A> semigroup, A seed) {
         A u = seed;
         for (A a : iterable) {
@@ -185,19 +566,167 @@ public class CollectionOps {
         return u;
     }
 
+    public static <A> A parReduce(Iterable<A> iterable, Monoid<A> m) {
+        return parReduce(iterable, m, ForkJoinPool.commonPool());
+    }
+
+    public static <A> A parReduce(Iterable<A> iterable, Monoid<A> m, ForkJoinPool pool) {
+        return forkJoin(iterable, pool, chunk -> reduce(chunk, m), m::append);
+    }
 
     public static <A> A foldLeft(Iterable<A> iterable, Semigroup<A> semigroup, A seed) {
         return reduce(iterable, semigroup, seed);
     }
 
     public static <A, B> Map<B, Integer> countBy(Iterable<A> iterable, Function<A, B> f) {
-        Map<B, List<A>> bCollectionMap = groupBy(iterable, f);
-        Set<B> keySet = bCollectionMap.keySet();
-        HashMap<B, Integer> map = new HashMap<>();
-        for (B key : keySet) {
-            map.put(key, bCollectionMap.get(key).size());
+        long start = Metrics.start();
+        Map<B, Integer> result = count(iterable, f).toIntMap();
+        Metrics.record("CollectionOps.countBy", start, iterable, result);
+        return result;
+    }
+
+    public static <A, B> Map<B, Long> countByLong(Iterable<A> iterable, Function<A, B> f) {
+        long start = Metrics.start();
+        Map<B, Long> result = count(iterable, f).toLongMap();
+        Metrics.record("CollectionOps.countByLong", start, iterable, result);
+        return result;
+    }
+
+    public static <A, B> Map<B, Integer> parCountBy(Iterable<A> iterable, Function<A, B> f) {
+        return parCountBy(iterable, f, ForkJoinPool.commonPool());
+    }
+
+    public static <A, B> Map<B, Integer> parCountBy(Iterable<A> iterable, Function<A, B> f, ForkJoinPool pool) {
+        return parCount(iterable, f, pool).toIntMap();
+    }
+
+    public static <A, B> Map<B, Long> parCountByLong(Iterable<A> iterable, Function<A, B> f) {
+        return parCountByLong(iterable, f, ForkJoinPool.commonPool());
+    }
+
+    public static <A, B> Map<B, Long> parCountByLong(Iterable<A> iterable, Function<A, B> f, ForkJoinPool pool) {
+        return parCount(iterable, f, pool).toLongMap();
+    }
+
+    private static <A> Iterable<A> unwrap(Iterable<A> iterable) {
+        return iterable instanceof FunctionalList ? ((FunctionalList<A>) iterable).delegate() : iterable;
+    }
+
+    private static boolean isRandomAccess(Iterable<?> iterable) {
+        return iterable instanceof List && iterable instanceof RandomAccess;
+    }
+
+    private static <A> Set<A> newSet(int expectedSize, boolean ordered) {
+        int capacity = hashCapacity(expectedSize);
+        return ordered ? new LinkedHashSet<A>(capacity) : new HashSet<A>(capacity);
+    }
+
+    private static int hashCapacity(int expectedSize) {
+        return (int) Math.min(Integer.MAX_VALUE, expectedSize * 4L / 3 + 1);
+    }
+
+    private static <A> List<A> keep(Iterable<A> iterable, Predicate<A> pred) {
+        List<A> result = new ArrayList<A>();
+        forEachWhile(iterable, a -> {
+            if (pred.test(a)) {
+                result.add(a);
+            }
+            return true;
+        });
+        return Collections.unmodifiableList(result);
+    }
+
+    private static <A> Set<A> copySet(Set<A> set, boolean ordered) {
+        return ordered ? new LinkedHashSet<A>(set) : new HashSet<A>(set);
+    }
+
+    private static <A> Set<A> parFilterSet(Set<A> source, Predicate<A> pred, ForkJoinPool pool) {
+        return forkJoin(source, pool, chunk -> {
+            Set<A> set = newSet(chunk.size(), false);
+            for (int i = 0, size = chunk.size(); i < size; i++) {
+                A a = chunk.get(i);
+                if (pred.test(a)) {
+                    set.add(a);
+                }
+            }
+            return set;
+        }, (l, r) -> {
+            if (l.size() < r.size()) {
+                r.addAll(l);
+                return r;
+            }
+            l.addAll(r);
+            return l;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> Set<A> cast(Set<?> set) {
+        return (Set<A>) set;
+    }
+
+    static <A, B> CountingTable<B> count(Iterable<A> iterable, Function<A, B> f) {
+        CountingTable<B> table = new CountingTable<>();
+        for (A a : iterable) {
+            table.increment(f.apply(a));
         }
+        return table;
+    }
 
-        return map;
+    private static <A, B> CountingTable<B> parCount(Iterable<A> iterable, Function<A, B> f, ForkJoinPool pool) {
+        return forkJoin(iterable, pool, chunk -> count(chunk, f), (left, right) -> {
+            if (left.size() < right.size()) {
+                right.addAll(left);
+                return right;
+            }
+            left.addAll(right);
+            return left;
+        });
+    }
+
+    /**
+     * Splits the input into balanced index ranges, runs {@code leaf} on each range and
+     * combines the results left to right.
+     */
+    private static <A, R> R forkJoin(Iterable<A> iterable, ForkJoinPool pool, Function<List<A>, R> leaf, BinaryOperator<R> combine) {
+        Iterable<A> source = unwrap(iterable);
+        List<A> list = isRandomAccess(source) ? (List<A>) source : copyToList(source);
+        if (list.size() <= PAR_THRESHOLD) {
+            return leaf.apply(list);
+        }
+        int chunkSize = Math.max(PAR_THRESHOLD, list.size() / (pool.getParallelism() * 4));
+        return pool.invoke(new ChunkTask<>(list, 0, list.size(), chunkSize, leaf, combine));
+    }
+
+    private static final class ChunkTask<A, R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<A> list;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final Function<List<A>, R> leaf;
+        private final BinaryOperator<R> combine;
+
+        ChunkTask(List<A> list, int from, int to, int chunkSize, Function<List<A>, R> leaf, BinaryOperator<R> combine) {
+            this.list = list;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.leaf = leaf;
+            this.combine = combine;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= chunkSize) {
+                return leaf.apply(list.subList(from, to));
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask<A, R> left = new ChunkTask<>(list, from, mid, chunkSize, leaf, combine);
+            left.fork();
+            R right = new ChunkTask<>(list, mid, to, chunkSize, leaf, combine).compute();
+            return combine.apply(left.join(), right);
+        }
     }
 }
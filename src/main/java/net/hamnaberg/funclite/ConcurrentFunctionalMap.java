@@ -0,0 +1,228 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Mutable, thread-safe companion to {@link FunctionalMap}, backed by a {@link ConcurrentHashMap}.
+ * Like the backing map it rejects null keys and values.
+ */
+public final class ConcurrentFunctionalMap<K, V> implements ConcurrentMap<K, V> {
+    private static final long PARALLELISM_THRESHOLD = 10000;
+
+    private final ConcurrentHashMap<K, V> delegate;
+
+    private ConcurrentFunctionalMap(ConcurrentHashMap<K, V> delegate) {
+        this.delegate = delegate;
+    }
+
+    public static <K, V> ConcurrentFunctionalMap<K, V> create() {
+        return new ConcurrentFunctionalMap<K, V>(new ConcurrentHashMap<K, V>());
+    }
+
+    public static <K, V> ConcurrentFunctionalMap<K, V> copyOf(Map<K, V> map) {
+        return new ConcurrentFunctionalMap<K, V>(new ConcurrentHashMap<K, V>(map));
+    }
+
+    public Optional<V> getOptional(K key) {
+        return Optional.fromNullable(delegate.get(key));
+    }
+
+    /**
+     * Hits are a plain volatile read; only misses go through {@code computeIfAbsent},
+     * so {@code f} runs at most once per key.
+     */
+    public V getOrCompute(K key, Function<K, V> f) {
+        V value = delegate.get(key);
+        if (value != null) {
+            return value;
+        }
+        return delegate.computeIfAbsent(key, f);
+    }
+
+    public V mergeWith(K key, V value, Semigroup<V> semigroup) {
+        return delegate.merge(key, value, semigroup::append);
+    }
+
+    /**
+     * Immutable copy of the current contents. Concurrent writers may or may not be reflected.
+     */
+    public FunctionalMap<K, V> snapshot() {
+        return FunctionalMap.create(PersistentHashMap.copyOf(delegate));
+    }
+
+    public <V2> ConcurrentFunctionalMap<K, V2> mapValues(Function<V, V2> f) {
+        ConcurrentHashMap<K, V2> map = new ConcurrentHashMap<K, V2>(Math.max(delegate.size(), 16));
+        delegate.forEach(PARALLELISM_THRESHOLD, (k, v) -> map.put(k, f.apply(v)));
+        return new ConcurrentFunctionalMap<K, V2>(map);
+    }
+
+    public ConcurrentFunctionalMap<K, V> filter(Predicate<Map.Entry<K, V>> p) {
+        ConcurrentHashMap<K, V> map = new ConcurrentHashMap<K, V>();
+        delegate.forEachEntry(PARALLELISM_THRESHOLD, e -> {
+            if (p.test(e)) {
+                map.put(e.getKey(), e.getValue());
+            }
+        });
+        return new ConcurrentFunctionalMap<K, V>(map);
+    }
+
+    public ConcurrentFunctionalMap<K, V> filterKeys(Predicate<K> p) {
+        return filter(e -> p.test(e.getKey()));
+    }
+
+    public void foreach(Consumer<Entry<K, V>> e) {
+        MapOps.foreach(delegate, e);
+    }
+
+
+    /** Map boilerplate **/
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return delegate.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return delegate.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return delegate.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return delegate.remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        delegate.putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return delegate.keySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return delegate.values();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return delegate.entrySet();
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        return delegate.remove(key, value);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        return delegate.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        return delegate.replace(key, value);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        return delegate.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        return delegate.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return delegate.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return delegate.compute(key, remappingFunction);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        return delegate.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return delegate.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+/**
+ * Emits {@code CopyEvent}s when the runtime has JDK Flight Recorder, and does nothing otherwise.
+ * The event classes are compiled from {@code src/main/jfr} only when building on JDK 11 or later,
+ * and are loaded reflectively once {@code jdk.jfr.Event} is known to exist, so this class is
+ * safe on runtimes, and in builds, without it.
+ *
+ * <pre>
+ * Object copy = CopyEvents.begin();
+ * ...
+ * CopyEvents.end(copy, "MapOps.mapValues", result.size());
+ * </pre>
+ */
+final class CopyEvents {
+    private static final CopyRecorder RECORDER = loadRecorder();
+
+    private CopyEvents() {
+    }
+
+    /**
+     * @return a token for {@link #end(Object, String, int)}, or null if the event is not enabled
+     */
+    static Object begin() {
+        return RECORDER != null ? RECORDER.begin() : null;
+    }
+
+    static void end(Object token, String operation, int elements) {
+        if (token != null) {
+            RECORDER.end(token, operation, elements);
+        }
+    }
+
+    private static CopyRecorder loadRecorder() {
+        ClassLoader loader = CopyEvents.class.getClassLoader();
+        try {
+            Class.forName("jdk.jfr.Event", false, loader);
+            Class<?> recorder = Class.forName("net.hamnaberg.funclite.JfrCopyRecorder", true, loader);
+            return (CopyRecorder) recorder.getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.hamnaberg.funclite;
+
+/**
+ * Hook behind {@link CopyEvents}. The only implementation, {@code JfrCopyRecorder}, lives in
+ * {@code src/main/jfr} and is loaded reflectively, so the main sources compile without {@code jdk.jfr}.
+ */
+interface CopyRecorder {
+    /**
+     * @return a token for {@link #end(Object, String, int)}, or null if the event is not enabled
+     */
+    Object begin();
+
+    void end(Object token, String operation, int elements);
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Open-addressing key to count table. Counting only keeps one key reference and one
+ * {@code long} per distinct key, regardless of how many elements were seen.
+ */
+final class CountingTable<K> {
+    private static final Object NULL_KEY = new Object();
+
+    private Object[] keys;
+    private long[] counts;
+    private int size;
+    private int mask;
+
+    CountingTable() {
+        this(16);
+    }
+
+    CountingTable(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(expectedKeys, 8) * 2 - 1) << 1;
+        keys = new Object[capacity];
+        counts = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    void increment(K key) {
+        add(key == null ? NULL_KEY : key, 1);
+    }
+
+    void addAll(CountingTable<K> other) {
+        Object[] otherKeys = other.keys;
+        for (int i = 0; i < otherKeys.length; i++) {
+            if (otherKeys[i] != null) {
+                add(otherKeys[i], other.counts[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    Map<K, Integer> toIntMap() {
+        Map<K, Integer> map = new HashMap<>(capacityFor(size));
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                map.put(key(keys[i]), Math.toIntExact(counts[i]));
+            }
+        }
+        return map;
+    }
+
+    Map<K, Long> toLongMap() {
+        Map<K, Long> map = new HashMap<>(capacityFor(size));
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                map.put(key(keys[i]), counts[i]);
+            }
+        }
+        return map;
+    }
+
+    private void add(Object key, long n) {
+        int i = mix(key.hashCode()) & mask;
+        while (true) {
+            Object current = keys[i];
+            if (current == null) {
+                keys[i] = key;
+                counts[i] = n;
+                if (++size > keys.length >>> 1) {
+                    resize();
+                }
+                return;
+            }
+            if (current == key || current.equals(key)) {
+                counts[i] += n;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        Object[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new Object[oldKeys.length << 1];
+        counts = new long[oldKeys.length << 1];
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object key = oldKeys[j];
+            if (key != null) {
+                int i = mix(key.hashCode()) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                counts[i] = oldCounts[j];
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K key(Object key) {
+        return key == NULL_KEY ? null : (K) key;
+    }
+
+    private static int mix(int h) {
+        int x = h * 0x9E3779B9;
+        return x ^ (x >>> 16);
+    }
+
+    private static int capacityFor(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.DoubleStream;
+
+/**
+ * Immutable list of {@code double} values backed by a {@code double[]}, so no element is ever boxed.
+ */
+public final class DoubleFunctionalList {
+    private static final DoubleFunctionalList EMPTY = new DoubleFunctionalList(new double[0]);
+
+    private final double[] values;
+
+    private DoubleFunctionalList(double[] values) {
+        this.values = values;
+    }
+
+    /** factories **/
+
+    public static DoubleFunctionalList empty() {
+        return EMPTY;
+    }
+
+    public static DoubleFunctionalList of(double... values) {
+        return copyOf(values);
+    }
+
+    public static DoubleFunctionalList copyOf(double[] values) {
+        return values.length == 0 ? EMPTY : new DoubleFunctionalList(values.clone());
+    }
+
+    public static DoubleFunctionalList copyOf(Iterable<Double> iterable) {
+        if (iterable instanceof List && iterable instanceof RandomAccess) {
+            List<Double> list = (List<Double>) iterable;
+            double[] values = new double[list.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = list.get(i);
+            }
+            return wrap(values);
+        }
+        return wrap(CollectionOps.stream(iterable).mapToDouble(Double::doubleValue).toArray());
+    }
+
+    static DoubleFunctionalList wrap(double[] values) {
+        return values.length == 0 ? EMPTY : new DoubleFunctionalList(values);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public double get(int index) {
+        return values[index];
+    }
+
+    public DoubleFunctionalList map(DoubleUnaryOperator f) {
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = f.applyAsDouble(values[i]);
+        }
+        return wrap(result);
+    }
+
+    public <B> FunctionalList<B> mapToObj(DoubleFunction<B> f) {
+        List<B> result = CollectionOps.newArrayList();
+        for (double value : values) {
+            result.add(f.apply(value));
+        }
+        return FunctionalList.create(result);
+    }
+
+    public FunctionalList<Double> boxed() {
+        return mapToObj(Double::valueOf);
+    }
+
+    public DoubleFunctionalList filter(DoublePredicate pred) {
+        double[] result = new double[values.length];
+        int n = 0;
+        for (double value : values) {
+            if (pred.test(value)) {
+                result[n++] = value;
+            }
+        }
+        if (n == values.length) {
+            return this;
+        }
+        return wrap(Arrays.copyOf(result, n));
+    }
+
+    public void foreach(DoubleConsumer effect) {
+        for (double value : values) {
+            effect.accept(value);
+        }
+    }
+
+    public boolean exists(DoublePredicate pred) {
+        for (double value : values) {
+            if (pred.test(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean forall(DoublePredicate pred) {
+        for (double value : values) {
+            if (!pred.test(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public double reduce(DoubleMonoid m) {
+        double u = m.zero();
+        for (double value : values) {
+            u = m.append(u, value);
+        }
+        return u;
+    }
+
+    /**
+     * Plain IEEE 754 summation: any {@code NaN} makes the sum {@code NaN}, and a list of only
+     * {@code -0.0} sums to {@code -0.0} (the empty list sums to {@code 0.0}).
+     */
+    public double sum() {
+        if (values.length == 0) {
+            return 0.0;
+        }
+        double sum = -0.0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Follows {@link Math#min(double, double)}: {@code NaN} wins, and {@code -0.0} is less than {@code 0.0}.
+     */
+    public OptionalDouble min() {
+        if (values.length == 0) {
+            return OptionalDouble.none();
+        }
+        double min = values[0];
+        for (int i = 1; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return OptionalDouble.some(min);
+    }
+
+    /**
+     * Follows {@link Math#max(double, double)}: {@code NaN} wins, and {@code 0.0} is greater than {@code -0.0}.
+     */
+    public OptionalDouble max() {
+        if (values.length == 0) {
+            return OptionalDouble.none();
+        }
+        double max = values[0];
+        for (int i = 1; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return OptionalDouble.some(max);
+    }
+
+    public DoubleStream stream() {
+        return Arrays.stream(values);
+    }
+
+    public double[] toArray() {
+        return values.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        return Arrays.equals(values, ((DoubleFunctionalList) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Appendable that encodes characters straight into a {@link ByteBuffer}.
+ * With a channel, full buffers are written out and reused; without one, running out of room
+ * throws {@link BufferOverflowException}.
+ */
+final class EncodingAppendable implements Appendable {
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars = CharBuffer.allocate(1024);
+    private final ByteBuffer bytes;
+    private final WritableByteChannel channel;
+
+    EncodingAppendable(Charset charset, ByteBuffer bytes, WritableByteChannel channel) {
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = bytes;
+        this.channel = channel;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        int i = start;
+        while (i < end) {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            int n = Math.min(chars.remaining(), end - i);
+            if (csq instanceof String) {
+                chars.put((String) csq, i, i + n);
+            }
+            else {
+                for (int j = i; j < i + n; j++) {
+                    chars.put(csq.charAt(j));
+                }
+            }
+            i += n;
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            encode(false);
+        }
+        chars.put(c);
+        return this;
+    }
+
+    void finish() throws IOException {
+        encode(true);
+        while (encoder.flush(bytes).isOverflow()) {
+            writeOut();
+        }
+        if (channel != null) {
+            writeOut();
+        }
+    }
+
+    private void encode(boolean endOfInput) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                writeOut();
+            }
+            else if (result.isError()) {
+                result.throwException();
+            }
+            else {
+                break;
+            }
+        }
+        chars.compact();
+    }
+
+    private void writeOut() throws IOException {
+        if (channel == null) {
+            throw new BufferOverflowException();
+        }
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
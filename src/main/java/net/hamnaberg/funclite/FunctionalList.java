@@ -16,14 +16,24 @@
 
 package net.hamnaberg.funclite;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
-public final class FunctionalList<A> implements List<A> {
+public final class FunctionalList<A> implements List<A>, InternalIterable<A> {
     private final List<A> delegate;
 
     private FunctionalList(List<A> delegate) {
@@ -42,11 +52,101 @@ public final class FunctionalList<A> implements List<A> {
         if (isEmpty()) {
             return this;
         }
-        return create(delegate.subList(1, size()));
+        return drop(1);
+    }
+
+    public FunctionalList<A> append(A a) {
+        return new FunctionalList<A>(vector().append(a));
+    }
+
+    public FunctionalList<A> prepend(A a) {
+        return new FunctionalList<A>(vector().prepend(a));
+    }
+
+    public FunctionalList<A> updated(int index, A a) {
+        return new FunctionalList<A>(vector().updated(index, a));
+    }
+
+    public FunctionalList<A> concat(Iterable<A> other) {
+        if (isEmpty()) {
+            return copyOf(other);
+        }
+        if (other instanceof FunctionalList) {
+            List<A> otherDelegate = ((FunctionalList<A>) other).delegate;
+            if (otherDelegate instanceof PersistentVector) {
+                return new FunctionalList<A>(vector().concat(otherDelegate));
+            }
+        }
+        return new FunctionalList<A>(vector().concat(other));
+    }
+
+    /**
+     * Constant time: a vector-backed list moves its window, anything else returns a view of the
+     * remaining elements instead of copying them.
+     */
+    public FunctionalList<A> drop(int n) {
+        if (n <= 0) {
+            return this;
+        }
+        if (delegate instanceof PersistentVector) {
+            return new FunctionalList<A>(((PersistentVector<A>) delegate).drop(n));
+        }
+        return new FunctionalList<A>(delegate.subList(Math.min(n, size()), size()));
+    }
+
+    public FunctionalList<A> take(int n) {
+        if (n >= size()) {
+            return this;
+        }
+        if (delegate instanceof PersistentVector) {
+            return new FunctionalList<A>(((PersistentVector<A>) delegate).take(n));
+        }
+        return new FunctionalList<A>(delegate.subList(0, Math.max(n, 0)));
     }
 
     public <B> FunctionalList<B> map(Function<A, B> f) {
-        return create(stream().map(f).collect(Collectors.toList()));
+        long start = Metrics.start();
+        Object copy = CopyEvents.begin();
+        FunctionalList<B> result = create(stream().map(f).collect(Collectors.toList()));
+        CopyEvents.end(copy, "FunctionalList.map", result.size());
+        Metrics.record("FunctionalList.map", start, delegate, result);
+        return result;
+    }
+
+    public IntFunctionalList mapToInt(ToIntFunction<A> f) {
+        long start = Metrics.start();
+        int[] values = new int[size()];
+        int i = 0;
+        for (A a : delegate) {
+            values[i++] = f.applyAsInt(a);
+        }
+        IntFunctionalList result = IntFunctionalList.wrap(values);
+        Metrics.record("FunctionalList.mapToInt", start, delegate, result);
+        return result;
+    }
+
+    public LongFunctionalList mapToLong(ToLongFunction<A> f) {
+        long start = Metrics.start();
+        long[] values = new long[size()];
+        int i = 0;
+        for (A a : delegate) {
+            values[i++] = f.applyAsLong(a);
+        }
+        LongFunctionalList result = LongFunctionalList.wrap(values);
+        Metrics.record("FunctionalList.mapToLong", start, delegate, result);
+        return result;
+    }
+
+    public DoubleFunctionalList mapToDouble(ToDoubleFunction<A> f) {
+        long start = Metrics.start();
+        double[] values = new double[size()];
+        int i = 0;
+        for (A a : delegate) {
+            values[i++] = f.applyAsDouble(a);
+        }
+        DoubleFunctionalList result = DoubleFunctionalList.wrap(values);
+        Metrics.record("FunctionalList.mapToDouble", start, delegate, result);
+        return result;
     }
 
     public <B> FunctionalList<B> flatMap(Function<A, Iterable<B>> f) {
@@ -54,16 +154,106 @@ public final class FunctionalList<A> implements List<A> {
             return empty();
         }
         else {
-            return create(stream().flatMap(a -> StreamSupport.stream(f.apply(a).spliterator(), false)).collect(Collectors.toList()));
+            long start = Metrics.start();
+            FunctionalList<B> result = create(stream().flatMap(a -> StreamSupport.stream(f.apply(a).spliterator(), false)).collect(Collectors.toList()));
+            Metrics.record("FunctionalList.flatMap", start, delegate, result);
+            return result;
         }
     }
 
     public FunctionalList<A> filter(Predicate<A> pred) {
-        return new FunctionalList<A>(CollectionOps.filter(this, pred));
+        long start = Metrics.start();
+        FunctionalList<A> result = new FunctionalList<A>(CollectionOps.filterList(this, pred));
+        Metrics.record("FunctionalList.filter", start, delegate, result);
+        return result;
+    }
+
+    public FunctionalList<A> sorted(Comparator<? super A> c) {
+        return create(Sorting.sorted(delegate, c, false));
+    }
+
+    /**
+     * Sorts with {@link Arrays#parallelSort(Object[], Comparator)}, which only goes parallel for large lists.
+     */
+    public FunctionalList<A> parSorted(Comparator<? super A> c) {
+        return create(Sorting.sorted(delegate, c, true));
+    }
+
+    /**
+     * Sorts on a key that is computed once per element rather than once per comparison.
+     */
+    public <K extends Comparable<? super K>> FunctionalList<A> sortBy(Function<A, K> key) {
+        return sortBy(key, Comparator.<K>naturalOrder());
+    }
+
+    public <K> FunctionalList<A> sortBy(Function<A, K> key, Comparator<? super K> c) {
+        return create(Sorting.sortBy(delegate, key, c, false));
+    }
+
+    public <K extends Comparable<? super K>> FunctionalList<A> parSortBy(Function<A, K> key) {
+        return create(Sorting.sortBy(delegate, key, Comparator.<K>naturalOrder(), true));
+    }
+
+    public FunctionalList<A> sortByInt(ToIntFunction<A> key) {
+        return create(Sorting.sortByInt(delegate, key));
+    }
+
+    public FunctionalList<A> sortByLong(ToLongFunction<A> key) {
+        return create(Sorting.sortByLong(delegate, key));
+    }
+
+    /**
+     * The {@code k} greatest elements under {@code c}, greatest first, selected in O(n log k)
+     * without sorting the whole list. Equal elements keep their input order.
+     */
+    public FunctionalList<A> topK(int k, Comparator<? super A> c) {
+        return create(Sorting.topK(delegate, k, c));
+    }
+
+    /**
+     * The {@code k} least elements under {@code c}, least first.
+     */
+    public FunctionalList<A> bottomK(int k, Comparator<? super A> c) {
+        return create(Sorting.topK(delegate, k, Collections.reverseOrder(c)));
+    }
+
+    public LazyList<A> view() {
+        return LazyList.from(delegate);
+    }
+
+    /**
+     * Maps on {@code executor} with at most {@code maxConcurrency} elements in flight, keeping input order.
+     * Fails fast with an {@link AsyncMapException} on the first error.
+     */
+    public <B> CompletableFuture<FunctionalList<B>> mapAsync(Function<A, B> f, Executor executor, int maxConcurrency) {
+        return mapAsync(f, executor, AsyncSpec.maxConcurrency(maxConcurrency));
+    }
+
+    public <B> CompletableFuture<FunctionalList<B>> mapAsync(Function<A, B> f, Executor executor, AsyncSpec spec) {
+        return AsyncMapper.map(delegate, f, executor, spec);
+    }
+
+    /**
+     * Blocking map for I/O-bound functions. Runs on virtual threads when the runtime has them,
+     * otherwise on a temporary pool of {@code maxConcurrency} threads.
+     *
+     * @throws AsyncMapException if any element failed
+     */
+    public <B> FunctionalList<B> parMapIO(Function<A, B> f, int maxConcurrency) {
+        return parMapIO(f, AsyncSpec.maxConcurrency(maxConcurrency));
+    }
+
+    public <B> FunctionalList<B> parMapIO(Function<A, B> f, AsyncSpec spec) {
+        return AsyncMapper.mapBlocking(delegate, f, spec);
     }
 
     public void foreach(Consumer<A> effect) {
-        stream().forEach(effect);
+        CollectionOps.foreach(delegate, effect);
+    }
+
+    @Override
+    public boolean forEachWhile(Predicate<A> p) {
+        return CollectionOps.forEachWhile(delegate, p);
     }
 
     public boolean forall(Predicate<A> pred) {
@@ -82,6 +272,37 @@ public final class FunctionalList<A> implements List<A> {
         return CollectionOps.reduce(this, u, seed);
     }
 
+    public IncrementalReduction<A> incrementalReduce(Monoid<A> m) {
+        return IncrementalReduction.create(this, m);
+    }
+
+    public A parReduce(Monoid<A> m) {
+        return CollectionOps.parReduce(delegate, m);
+    }
+
+    public A parReduce(Monoid<A> m, ForkJoinPool pool) {
+        return CollectionOps.parReduce(delegate, m, pool);
+    }
+
+    public FunctionalList<A> distinct() {
+        return new FunctionalList<A>(CollectionOps.distinct(delegate));
+    }
+
+    public <K> FunctionalList<A> distinctBy(Function<A, K> key) {
+        return new FunctionalList<A>(CollectionOps.distinctBy(delegate, key));
+    }
+
+    /**
+     * Approximate, bounded-memory dedupe; see {@link CollectionOps#distinct(Iterable, BloomFilter)}.
+     */
+    public FunctionalList<A> distinct(BloomFilter<? super A> filter) {
+        return new FunctionalList<A>(CollectionOps.distinct(delegate, filter));
+    }
+
+    public <K> FunctionalList<A> distinctBy(Function<A, K> key, BloomFilter<? super K> filter) {
+        return new FunctionalList<A>(CollectionOps.distinctBy(delegate, key, filter));
+    }
+
     public Set<A> toSet() {
         return CollectionOps.setOf(delegate);
     }
@@ -90,22 +311,70 @@ public final class FunctionalList<A> implements List<A> {
         return CollectionOps.mkString(this, start, sep, end);
     }
 
+    public <W extends Appendable> W mkStringTo(W appendable, String start, String sep, String end) {
+        return CollectionOps.mkStringTo(this, appendable, start, sep, end);
+    }
+
     public String mkString(String sep) {
         return CollectionOps.mkString(this, "[", sep, "]");
     }
 
     public <K> Map<K, List<A>> groupBy(Function<A, K> grouper) {
-        return CollectionOps.groupBy(this, grouper);
+        long start = Metrics.start();
+        Map<K, List<A>> result = stream().collect(Collectors.groupingBy(grouper));
+        Metrics.record("FunctionalList.groupBy", start, delegate, result);
+        return result;
+    }
+
+    /**
+     * Groups on a parallel stream into a concurrent map. Elements within a group are not kept in
+     * encounter order, and null keys are rejected.
+     */
+    public <K> ConcurrentMap<K, List<A>> parGroupBy(Function<A, K> grouper) {
+        long start = Metrics.start();
+        ConcurrentMap<K, List<A>> result = CollectionOps.parGroupBy(delegate, grouper);
+        Metrics.record("FunctionalList.parGroupBy", start, delegate, result);
+        return result;
+    }
+
+    public <K, B> FunctionalMap<K, B> groupMapReduce(Function<A, K> key, Function<A, B> value, Monoid<B> m) {
+        return FunctionalMap.create(CollectionOps.groupMapReduce(delegate, key, value, m), m.zero());
+    }
+
+    public <K, B> FunctionalMap<K, B> parGroupMapReduce(Function<A, K> key, Function<A, B> value, Monoid<B> m) {
+        return FunctionalMap.create(CollectionOps.parGroupMapReduce(delegate, key, value, m), m.zero());
+    }
+
+    public <K> FunctionalMap<K, Integer> countBy(Function<A, K> f) {
+        long start = Metrics.start();
+        FunctionalMap<K, Integer> result = FunctionalMap.create(CollectionOps.count(delegate, f).toIntMap(), 0);
+        Metrics.record("FunctionalList.countBy", start, delegate, result);
+        return result;
+    }
+
+    public <K> FunctionalMap<K, Long> countByLong(Function<A, K> f) {
+        long start = Metrics.start();
+        FunctionalMap<K, Long> result = FunctionalMap.create(CollectionOps.count(delegate, f).toLongMap(), 0L);
+        Metrics.record("FunctionalList.countByLong", start, delegate, result);
+        return result;
     }
 
     public String mkString(){
         return CollectionOps.mkString(this);
     }
 
+    List<A> delegate() {
+        return delegate;
+    }
+
+    private PersistentVector<A> vector() {
+        return PersistentVector.copyOf(delegate);
+    }
+
     /** factories **/
 
     public static <B> FunctionalList<B> empty() {
-        return new FunctionalList<B>(Collections.<B>emptyList());
+        return new FunctionalList<B>(PersistentVector.<B>empty());
     }
 
     public static <A> FunctionalList<A> of(A... args) {
@@ -119,11 +388,44 @@ public final class FunctionalList<A> implements List<A> {
         return new FunctionalList<A>(list);
     }
 
+    /**
+     * Maps a file produced by {@link #writeRecords(Path, Iterable, RecordCodec)}. Records stay in
+     * the file and are decoded on access; {@code subList}, {@code tail}, {@code drop} and
+     * {@code take} share the mapping.
+     */
+    public static <A> FunctionalList<A> mapped(Path path, RecordCodec<A> codec) throws IOException {
+        return new FunctionalList<A>(RecordList.mapped(path, codec));
+    }
+
+    /**
+     * Encodes the values into direct buffers outside the heap. Records are decoded on access.
+     */
+    public static <A> FunctionalList<A> offHeap(Iterable<A> values, RecordCodec<A> codec) {
+        return new FunctionalList<A>(RecordList.offHeap(values, codec));
+    }
+
+    /**
+     * Views the remaining bytes of the buffer as records, without copying.
+     */
+    public static <A> FunctionalList<A> fromBuffer(ByteBuffer buffer, RecordCodec<A> codec) {
+        return new FunctionalList<A>(RecordList.wrap(buffer, codec));
+    }
+
+    /**
+     * @return the number of records written
+     */
+    public static <A> long writeRecords(Path path, Iterable<A> values, RecordCodec<A> codec) throws IOException {
+        return RecordList.write(path, values, codec);
+    }
+
     public static <A> FunctionalList<A> copyOf(Iterable<A> list) {
         if (list instanceof FunctionalList) {
             return (FunctionalList<A>) list;
         }
-        return new FunctionalList<A>(CollectionOps.newArrayList(list));
+        Object copy = CopyEvents.begin();
+        FunctionalList<A> result = new FunctionalList<A>(CollectionOps.copyToList(list));
+        CopyEvents.end(copy, "FunctionalList.copyOf", result.size());
+        return result;
     }
 
 
@@ -246,6 +548,9 @@ public final class FunctionalList<A> implements List<A> {
 
     @Override
     public List<A> subList(int fromIndex, int toIndex) {
+        if (delegate instanceof RecordList) {
+            return new FunctionalList<A>(delegate.subList(fromIndex, toIndex));
+        }
         return Collections.unmodifiableList(delegate).subList(fromIndex, toIndex);
     }
 
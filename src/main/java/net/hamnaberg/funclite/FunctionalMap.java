@@ -24,7 +24,7 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
-public final class FunctionalMap<K, V> implements Map<K, V> {
+public final class FunctionalMap<K, V> implements Map<K, V>, InternalIterable<Map.Entry<K, V>> {
     private final Map<K, V> delegate;
     private final V defaultValue;
 
@@ -67,26 +67,101 @@ public final class FunctionalMap<K, V> implements Map<K, V> {
     }
 
     public static <K,V> FunctionalMap<K, V> empty() {
-        return create(Collections.<K, V>emptyMap());
+        return create(PersistentHashMap.<K, V>empty());
+    }
+
+    public static <K,V> Builder<K, V> builder() {
+        return new Builder<K, V>(PersistentHashMap.<K, V>empty(), null);
+    }
+
+    public Builder<K, V> toBuilder() {
+        return new Builder<K, V>(hamt(), defaultValue);
+    }
+
+    public FunctionalMap<K, V> updated(K key, V value) {
+        return new FunctionalMap<K, V>(hamt().updated(key, value), defaultValue);
+    }
+
+    public FunctionalMap<K, V> removed(K key) {
+        return new FunctionalMap<K, V>(hamt().removed(key), defaultValue);
+    }
+
+    public FunctionalMap<K, V> merge(Map<K, V> other, Semigroup<V> semigroup) {
+        long start = Metrics.start();
+        Map<K, V> otherMap = other instanceof FunctionalMap ? ((FunctionalMap<K, V>) other).delegate : other;
+        FunctionalMap<K, V> result = new FunctionalMap<K, V>(hamt().merge(otherMap, semigroup), defaultValue);
+        Metrics.record("FunctionalMap.merge", start, other, result);
+        return result;
     }
 
 
     public <V2> FunctionalMap<K, V2> mapValues(Function<V, V2> f) {
-        return create(MapOps.mapValues(delegate, f));
+        long start = Metrics.start();
+        Object copy = CopyEvents.begin();
+        FunctionalMap<K, V2> result = create(MapOps.mapValuesMap(delegate, f));
+        CopyEvents.end(copy, "FunctionalMap.mapValues", result.size());
+        Metrics.record("FunctionalMap.mapValues", start, delegate, result);
+        return result;
     }
 
     public FunctionalMap<K, V> filterKeys(Predicate<K> p) {
-        return create(MapOps.filterKeys(delegate, p));
+        long start = Metrics.start();
+        Object copy = CopyEvents.begin();
+        FunctionalMap<K, V> result = create(MapOps.filterMap(delegate, e -> p.test(e.getKey())));
+        CopyEvents.end(copy, "FunctionalMap.filterKeys", result.size());
+        Metrics.record("FunctionalMap.filterKeys", start, delegate, result);
+        return result;
     }
 
     public FunctionalMap<K, V> filter(Predicate<Map.Entry<K, V>> p) {
-        return create(MapOps.filter(delegate, p));
+        long start = Metrics.start();
+        Object copy = CopyEvents.begin();
+        FunctionalMap<K, V> result = create(MapOps.filterMap(delegate, p));
+        CopyEvents.end(copy, "FunctionalMap.filter", result.size());
+        Metrics.record("FunctionalMap.filter", start, delegate, result);
+        return result;
+    }
+
+    public <V2> FunctionalMap<K, V2> mapValuesView(Function<V, V2> f) {
+        return mapValuesView(f, false);
+    }
+
+    public <V2> FunctionalMap<K, V2> mapValuesView(Function<V, V2> f, boolean memoize) {
+        return create(MapView.mapValues(delegate, f, memoize));
+    }
+
+    public FunctionalMap<K, V> filterView(Predicate<Map.Entry<K, V>> p) {
+        return filterView(p, false);
+    }
+
+    public FunctionalMap<K, V> filterView(Predicate<Map.Entry<K, V>> p, boolean memoize) {
+        return new FunctionalMap<K, V>(MapView.filter(delegate, p, memoize), defaultValue);
+    }
+
+    public FunctionalMap<K, V> filterKeysView(Predicate<K> p) {
+        return filterView(e -> p.test(e.getKey()));
+    }
+
+    public FunctionalMap<K, V> force() {
+        if (delegate instanceof MapView) {
+            return new FunctionalMap<K, V>(PersistentHashMap.copyOf(delegate), defaultValue);
+        }
+        return this;
     }
 
     public void foreach(Consumer<Entry<K, V>> e){
         MapOps.foreach(delegate, e);
     }
 
+    @Override
+    public boolean forEachWhile(Predicate<Entry<K, V>> p) {
+        return MapOps.forEachWhile(delegate, p);
+    }
+
+    private PersistentHashMap<K, V> hamt() {
+        return PersistentHashMap.copyOf(delegate);
+    }
+
     private static <K, V> boolean isDefaultOverride(V defaultValue, FunctionalMap<K, V> fMap) {
         return (fMap.defaultValue == null && defaultValue != null) || (fMap.defaultValue != null && defaultValue == null);
     }
@@ -164,4 +239,35 @@ public final class FunctionalMap<K, V> implements Map<K, V> {
     public int hashCode() {
         return delegate.hashCode();
     }
+
+    public static final class Builder<K, V> {
+        private final PersistentHashMap.Builder<K, V> builder;
+        private final V defaultValue;
+
+        private Builder(PersistentHashMap<K, V> base, V defaultValue) {
+            this.builder = new PersistentHashMap.Builder<K, V>(base);
+            this.defaultValue = defaultValue;
+        }
+
+        public Builder<K, V> put(K key, V value) {
+            builder.put(key, value);
+            return this;
+        }
+
+        public Builder<K, V> putAll(Map<? extends K, ? extends V> map) {
+            for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                builder.put(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        public Builder<K, V> remove(K key) {
+            builder.remove(key);
+            return this;
+        }
+
+        public FunctionalMap<K, V> build() {
+            return new FunctionalMap<K, V>(builder.build(), defaultValue);
+        }
+    }
 }
@@ -25,4 +25,12 @@ public final class Functions {
     public static <A> Function<A, String> asString() {
         return Object::toString;
     }
+
+    public static <A, B> MemoizedFunction<A, B> memoize(Function<A, B> f) {
+        return memoize(f, CacheSpec.unbounded());
+    }
+
+    public static <A, B> MemoizedFunction<A, B> memoize(Function<A, B> f, CacheSpec spec) {
+        return new MemoizedFunction<A, B>(f, spec);
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory {@link OpsMetrics} that keeps per-operation totals and a log2 histogram of call
+ * times. Percentiles are reported as the upper bound of their bucket, so they are accurate to
+ * within a factor of two.
+ */
+public final class HistogramOpsMetrics implements OpsMetrics {
+    private final ConcurrentHashMap<String, OpStats> stats = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(String operation, long inputSize, long outputSize, long nanos) {
+        OpStats s = stats.get(operation);
+        if (s == null) {
+            s = stats.computeIfAbsent(operation, k -> new OpStats());
+        }
+        s.add(inputSize, outputSize, nanos);
+    }
+
+    public long calls(String operation) {
+        OpStats s = stats.get(operation);
+        return s == null ? 0 : s.calls.sum();
+    }
+
+    public long inputElements(String operation) {
+        OpStats s = stats.get(operation);
+        return s == null ? 0 : s.input.sum();
+    }
+
+    public long outputElements(String operation) {
+        OpStats s = stats.get(operation);
+        return s == null ? 0 : s.output.sum();
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * @return one line per operation, ordered by total time
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder(String.format("%-36s %10s %12s %12s %12s %10s %10s %10s%n",
+                "operation", "calls", "in", "out", "total ms", "p50 us", "p99 us", "max us"));
+        for (Row row : rows()) {
+            sb.append(String.format("%-36s %10d %12d %12d %12.3f %10.1f %10.1f %10.1f%n",
+                    row.operation, row.calls, row.input, row.output, row.totalNanos / 1e6,
+                    row.p50 / 1e3, row.p99 / 1e3, row.max / 1e3));
+        }
+        return sb.toString();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"operations\":[");
+        String sep = "";
+        for (Row row : rows()) {
+            sb.append(sep).append("{\"name\":\"").append(escape(row.operation)).append('"')
+                    .append(",\"calls\":").append(row.calls)
+                    .append(",\"inputElements\":").append(row.input)
+                    .append(",\"outputElements\":").append(row.output)
+                    .append(",\"totalNanos\":").append(row.totalNanos)
+                    .append(",\"p50Nanos\":").append(row.p50)
+                    .append(",\"p99Nanos\":").append(row.p99)
+                    .append(",\"maxNanos\":").append(row.max)
+                    .append('}');
+            sep = ",";
+        }
+        return sb.append("]}").toString();
+    }
+
+    @Override
+    public String toString() {
+        return report();
+    }
+
+    private List<Row> rows() {
+        List<Row> rows = new ArrayList<>();
+        stats.forEach((operation, s) -> rows.add(s.row(operation)));
+        rows.sort((a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        return rows;
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            }
+            else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class OpStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder input = new LongAdder();
+        final LongAdder output = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong max = new AtomicLong();
+        final LongAdder[] buckets = new LongAdder[64];
+
+        OpStats() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void add(long inputSize, long outputSize, long nanos) {
+            calls.increment();
+            if (inputSize > 0) {
+                input.add(inputSize);
+            }
+            if (outputSize > 0) {
+                output.add(outputSize);
+            }
+            long n = Math.max(0, nanos);
+            totalNanos.add(n);
+            buckets[Math.min(63, 64 - Long.numberOfLeadingZeros(n))].increment();
+            long m = max.get();
+            while (n > m && !max.compareAndSet(m, n)) {
+                m = max.get();
+            }
+        }
+
+        Row row(String operation) {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            return new Row(operation, calls.sum(), input.sum(), output.sum(), totalNanos.sum(),
+                    percentile(counts, total, 0.5), percentile(counts, total, 0.99), max.get());
+        }
+
+        private long percentile(long[] counts, long total, double q) {
+            long target = (long) Math.ceil(total * q);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target && seen > 0) {
+                    return Math.min(max.get(), i == 0 ? 0 : (1L << i) - 1);
+                }
+            }
+            return max.get();
+        }
+    }
+
+    private static final class Row {
+        final String operation;
+        final long calls;
+        final long input;
+        final long output;
+        final long totalNanos;
+        final long p50;
+        final long p99;
+        final long max;
+
+        Row(String operation, long calls, long input, long output, long totalNanos, long p50, long p99, long max) {
+            this.operation = operation;
+            this.calls = calls;
+            this.input = input;
+            this.output = output;
+            this.totalNanos = totalNanos;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A fold of a list under a {@link Monoid} that stays up to date as elements change.
+ *
+ * Partial results are kept in a segment tree, so {@link #update(int, Object)} and
+ * {@link #reduce(int, int)} are O(log n) instead of refolding the whole list. Element order is
+ * preserved, so non-commutative monoids work too. Instances are not thread-safe.
+ */
+public final class IncrementalReduction<A> {
+    private final Monoid<A> monoid;
+    private final Object[] tree;
+    private final int leaves;
+    private final int size;
+
+    private IncrementalReduction(List<A> list, Monoid<A> monoid) {
+        this.monoid = monoid;
+        this.size = list.size();
+        this.leaves = size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        this.tree = new Object[2 * leaves];
+        A zero = monoid.zero();
+        for (int i = 0; i < leaves; i++) {
+            tree[leaves + i] = i < size ? list.get(i) : zero;
+        }
+        for (int i = leaves - 1; i > 0; i--) {
+            tree[i] = monoid.append(node(2 * i), node(2 * i + 1));
+        }
+    }
+
+    public static <A> IncrementalReduction<A> create(Iterable<A> values, Monoid<A> monoid) {
+        Iterable<A> source = values instanceof FunctionalList ? ((FunctionalList<A>) values).delegate() : values;
+        if (source instanceof List && source instanceof RandomAccess) {
+            return new IncrementalReduction<A>((List<A>) source, monoid);
+        }
+        return new IncrementalReduction<A>(CollectionOps.copyToList(source), monoid);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public A get(int index) {
+        checkIndex(index);
+        return node(leaves + index);
+    }
+
+    public void update(int index, A value) {
+        checkIndex(index);
+        int i = leaves + index;
+        tree[i] = value;
+        for (i >>>= 1; i > 0; i >>>= 1) {
+            tree[i] = monoid.append(node(2 * i), node(2 * i + 1));
+        }
+    }
+
+    /**
+     * @return the fold of every element
+     */
+    public A reduce() {
+        return node(1);
+    }
+
+    /**
+     * @return the fold of the elements in {@code [from, to)}
+     */
+    public A reduce(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException(String.format("From: %s, To: %s, Size: %s", from, to, size));
+        }
+        A left = monoid.zero();
+        A right = monoid.zero();
+        for (int l = from + leaves, r = to + leaves; l < r; l >>>= 1, r >>>= 1) {
+            if ((l & 1) == 1) {
+                left = monoid.append(left, node(l++));
+            }
+            if ((r & 1) == 1) {
+                right = monoid.append(node(--r), right);
+            }
+        }
+        return monoid.append(left, right);
+    }
+
+    public FunctionalList<A> toList() {
+        PersistentVector.Builder<A> builder = new PersistentVector.Builder<>();
+        for (int i = 0; i < size; i++) {
+            builder.add(node(leaves + i));
+        }
+        return FunctionalList.create(builder.build());
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %s, Size: %s", index, size));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private A node(int i) {
+        return (A) tree[i];
+    }
+}
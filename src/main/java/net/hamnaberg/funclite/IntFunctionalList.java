@@ -0,0 +1,203 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable list of {@code int} values backed by a {@code int[]}, so no element is ever boxed.
+ */
+public final class IntFunctionalList {
+    private static final IntFunctionalList EMPTY = new IntFunctionalList(new int[0]);
+
+    private final int[] values;
+
+    private IntFunctionalList(int[] values) {
+        this.values = values;
+    }
+
+    /** factories **/
+
+    public static IntFunctionalList empty() {
+        return EMPTY;
+    }
+
+    public static IntFunctionalList of(int... values) {
+        return copyOf(values);
+    }
+
+    public static IntFunctionalList copyOf(int[] values) {
+        return values.length == 0 ? EMPTY : new IntFunctionalList(values.clone());
+    }
+
+    public static IntFunctionalList copyOf(Iterable<Integer> iterable) {
+        if (iterable instanceof List && iterable instanceof RandomAccess) {
+            List<Integer> list = (List<Integer>) iterable;
+            int[] values = new int[list.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = list.get(i);
+            }
+            return wrap(values);
+        }
+        return wrap(CollectionOps.stream(iterable).mapToInt(Integer::intValue).toArray());
+    }
+
+    static IntFunctionalList wrap(int[] values) {
+        return values.length == 0 ? EMPTY : new IntFunctionalList(values);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public IntFunctionalList map(IntUnaryOperator f) {
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = f.applyAsInt(values[i]);
+        }
+        return wrap(result);
+    }
+
+    public <B> FunctionalList<B> mapToObj(IntFunction<B> f) {
+        List<B> result = CollectionOps.newArrayList();
+        for (int value : values) {
+            result.add(f.apply(value));
+        }
+        return FunctionalList.create(result);
+    }
+
+    public FunctionalList<Integer> boxed() {
+        return mapToObj(Integer::valueOf);
+    }
+
+    public IntFunctionalList filter(IntPredicate pred) {
+        int[] result = new int[values.length];
+        int n = 0;
+        for (int value : values) {
+            if (pred.test(value)) {
+                result[n++] = value;
+            }
+        }
+        if (n == values.length) {
+            return this;
+        }
+        return wrap(Arrays.copyOf(result, n));
+    }
+
+    public void foreach(IntConsumer effect) {
+        for (int value : values) {
+            effect.accept(value);
+        }
+    }
+
+    public boolean exists(IntPredicate pred) {
+        for (int value : values) {
+            if (pred.test(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean forall(IntPredicate pred) {
+        for (int value : values) {
+            if (!pred.test(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int reduce(IntMonoid m) {
+        int u = m.zero();
+        for (int value : values) {
+            u = m.append(u, value);
+        }
+        return u;
+    }
+
+    public int sum() {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    public OptionalInt min() {
+        if (values.length == 0) {
+            return OptionalInt.none();
+        }
+        int min = values[0];
+        for (int i = 1; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return OptionalInt.some(min);
+    }
+
+    public OptionalInt max() {
+        if (values.length == 0) {
+            return OptionalInt.none();
+        }
+        int max = values[0];
+        for (int i = 1; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return OptionalInt.some(max);
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(values);
+    }
+
+    public int[] toArray() {
+        return values.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        return Arrays.equals(values, ((IntFunctionalList) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Immutable set of non-negative ints stored as a bitmap of {@code long} words.
+ *
+ * Set algebra between two {@code IntSet}s works a word at a time. The unordered
+ * {@link CollectionOps#union(java.util.Set, java.util.Set, boolean)} and friends, and
+ * the {@code par*} variants, use it when both arguments are {@code IntSet}s.
+ * Best suited to dense ids; memory is proportional to the largest value.
+ */
+public final class IntSet extends AbstractSet<Integer> implements InternalIterable<Integer> {
+    private static final IntSet EMPTY = new IntSet(new long[0]);
+
+    private final long[] words;
+    private final int size;
+
+    private IntSet(long[] words) {
+        this.words = words;
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        this.size = size;
+    }
+
+    public static IntSet empty() {
+        return EMPTY;
+    }
+
+    public static IntSet of(int... values) {
+        int max = -1;
+        for (int value : values) {
+            Preconditions.checkArgument(value >= 0, "IntSet only holds non-negative values, got %s", value);
+            max = Math.max(max, value);
+        }
+        long[] words = new long[(max >> 6) + 1];
+        for (int value : values) {
+            words[value >> 6] |= 1L << value;
+        }
+        return trimmed(words);
+    }
+
+    public static IntSet copyOf(Iterable<Integer> values) {
+        if (values instanceof IntSet) {
+            return (IntSet) values;
+        }
+        BitSet bits = new BitSet();
+        for (Integer value : values) {
+            Preconditions.checkArgument(value >= 0, "IntSet only holds non-negative values, got %s", value);
+            bits.set(value);
+        }
+        return fromBitSet(bits);
+    }
+
+    public static IntSet fromBitSet(BitSet bits) {
+        long[] words = bits.toLongArray();
+        return words.length == 0 ? EMPTY : new IntSet(words);
+    }
+
+    public BitSet toBitSet() {
+        return BitSet.valueOf(words);
+    }
+
+    public IntFunctionalList toList() {
+        int[] values = new int[size];
+        int i = 0;
+        for (int w = 0; w < words.length; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                values[i++] = (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return IntFunctionalList.wrap(values);
+    }
+
+    public boolean contains(int value) {
+        int w = value >> 6;
+        return value >= 0 && w < words.length && (words[w] & (1L << value)) != 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && contains(((Integer) o).intValue());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public IntSet union(IntSet other) {
+        long[] big = words.length >= other.words.length ? words : other.words;
+        long[] small = big == words ? other.words : words;
+        long[] result = big.clone();
+        for (int i = 0; i < small.length; i++) {
+            result[i] |= small[i];
+        }
+        return new IntSet(result);
+    }
+
+    public IntSet intersection(IntSet other) {
+        long[] result = new long[Math.min(words.length, other.words.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return trimmed(result);
+    }
+
+    public IntSet difference(IntSet other) {
+        long[] result = words.clone();
+        for (int i = 0, n = Math.min(words.length, other.words.length); i < n; i++) {
+            result[i] &= ~other.words[i];
+        }
+        return trimmed(result);
+    }
+
+    public IntSet symmetricDifference(IntSet other) {
+        long[] big = words.length >= other.words.length ? words : other.words;
+        long[] small = big == words ? other.words : words;
+        long[] result = big.clone();
+        for (int i = 0; i < small.length; i++) {
+            result[i] ^= small[i];
+        }
+        return trimmed(result);
+    }
+
+    @Override
+    public boolean forEachWhile(Predicate<Integer> p) {
+        for (int w = 0; w < words.length; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                if (!p.test((w << 6) + Long.numberOfTrailingZeros(word))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<Integer>() {
+            private int w = 0;
+            private long word = words.length > 0 ? words[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0 && w + 1 < words.length) {
+                    word = words[++w];
+                }
+                return word != 0;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int value = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return value;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof IntSet) {
+            return Arrays.equals(words, ((IntSet) o).words);
+        }
+        return super.equals(o);
+    }
+
+    private static IntSet trimmed(long[] words) {
+        int n = words.length;
+        while (n > 0 && words[n - 1] == 0) {
+            n--;
+        }
+        if (n == 0) {
+            return EMPTY;
+        }
+        return new IntSet(n == words.length ? words : Arrays.copyOf(words, n));
+    }
+}
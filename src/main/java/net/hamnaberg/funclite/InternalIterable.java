@@ -0,0 +1,30 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import java.util.function.Predicate;
+
+/**
+ * Internal iteration: the collection drives a plain loop over its own storage and hands each
+ * element to {@code p}, stopping as soon as {@code p} returns false. This avoids allocating
+ * an {@link java.util.Iterator} or a {@link java.util.stream.Stream} per traversal.
+ */
+public interface InternalIterable<A> {
+    /**
+     * @return true if every element was passed to {@code p}, false if {@code p} stopped the traversal
+     */
+    boolean forEachWhile(Predicate<A> p);
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A view over an {@link Iterable} that records {@code map}, {@code filter} and {@code flatMap}
+ * without running them. The whole chain is fused into a single pass when a terminal operation
+ * is called, and short-circuiting terminals stop pulling from the source as soon as they can.
+ */
+public final class LazyList<A> implements InternalIterable<A> {
+    private final Traversal<A> traversal;
+
+    private LazyList(Traversal<A> traversal) {
+        this.traversal = traversal;
+    }
+
+    public static <A> LazyList<A> from(Iterable<A> iterable) {
+        if (iterable instanceof InternalIterable) {
+            @SuppressWarnings("unchecked")
+            InternalIterable<A> internal = (InternalIterable<A>) iterable;
+            return new LazyList<A>(internal::forEachWhile);
+        }
+        if (iterable instanceof List && iterable instanceof RandomAccess) {
+            List<A> list = (List<A>) iterable;
+            return new LazyList<A>(sink -> {
+                for (int i = 0, size = list.size(); i < size; i++) {
+                    if (!sink.test(list.get(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+        }
+        return new LazyList<A>(sink -> {
+            for (A a : iterable) {
+                if (!sink.test(a)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    public <B> LazyList<B> map(Function<A, B> f) {
+        return new LazyList<B>(sink -> traversal.traverse(a -> sink.test(f.apply(a))));
+    }
+
+    public LazyList<A> filter(Predicate<A> pred) {
+        return new LazyList<A>(sink -> traversal.traverse(a -> !pred.test(a) || sink.test(a)));
+    }
+
+    public <B> LazyList<B> flatMap(Function<A, Iterable<B>> f) {
+        return new LazyList<B>(sink -> traversal.traverse(a -> {
+            for (B b : f.apply(a)) {
+                if (!sink.test(b)) {
+                    return false;
+                }
+            }
+            return true;
+        }));
+    }
+
+    public LazyList<A> distinct() {
+        return distinctBy(Function.<A>identity());
+    }
+
+    /**
+     * Keeps the first element for each key. Each traversal starts with an empty set of seen keys.
+     */
+    public <K> LazyList<A> distinctBy(Function<A, K> key) {
+        return new LazyList<A>(sink -> {
+            Set<K> seen = new HashSet<K>();
+            return traversal.traverse(a -> !seen.add(key.apply(a)) || sink.test(a));
+        });
+    }
+
+    /**
+     * Streaming dedupe in the fixed memory of {@code filter}, which may drop an element on a false
+     * positive. The filter is shared, so keys seen in one traversal stay seen in the next.
+     */
+    public LazyList<A> distinct(BloomFilter<? super A> filter) {
+        return new LazyList<A>(sink -> traversal.traverse(a -> !filter.put(a) || sink.test(a)));
+    }
+
+    public <K> LazyList<A> distinctBy(Function<A, K> key, BloomFilter<? super K> filter) {
+        return new LazyList<A>(sink -> traversal.traverse(a -> !filter.put(key.apply(a)) || sink.test(a)));
+    }
+
+    public LazyList<A> take(int n) {
+        return new LazyList<A>(sink -> {
+            if (n <= 0) {
+                return true;
+            }
+            int[] remaining = {n};
+            boolean[] stopped = {false};
+            traversal.traverse(a -> {
+                if (!sink.test(a)) {
+                    stopped[0] = true;
+                    return false;
+                }
+                return --remaining[0] > 0;
+            });
+            return !stopped[0];
+        });
+    }
+
+    /** terminals **/
+
+    public FunctionalList<A> toList() {
+        List<A> list = new ArrayList<A>();
+        traversal.traverse(a -> {
+            list.add(a);
+            return true;
+        });
+        return FunctionalList.create(list);
+    }
+
+    public void foreach(Consumer<A> effect) {
+        traversal.traverse(a -> {
+            effect.accept(a);
+            return true;
+        });
+    }
+
+    public A reduce(Semigroup<A> semigroup, A seed) {
+        Object[] acc = {seed};
+        traversal.traverse(a -> {
+            acc[0] = semigroup.append(cast(acc[0]), a);
+            return true;
+        });
+        return cast(acc[0]);
+    }
+
+    public A reduce(Monoid<A> m) {
+        return reduce(m, m.zero());
+    }
+
+    public Optional<A> find(Predicate<A> pred) {
+        Object[] found = {null};
+        traversal.traverse(a -> {
+            if (pred.test(a)) {
+                found[0] = a;
+                return false;
+            }
+            return true;
+        });
+        return Optional.fromNullable(cast(found[0]));
+    }
+
+    public Optional<A> headOption() {
+        return find(Predicates.alwaysTrue());
+    }
+
+    public boolean exists(Predicate<A> pred) {
+        return !traversal.traverse(a -> !pred.test(a));
+    }
+
+    public boolean forall(Predicate<A> pred) {
+        return traversal.traverse(pred);
+    }
+
+    @Override
+    public boolean forEachWhile(Predicate<A> p) {
+        return traversal.traverse(p);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> A cast(Object o) {
+        return (A) o;
+    }
+
+    /**
+     * Pushes elements into the sink until it returns false.
+     * Returns true if every element was consumed.
+     */
+    interface Traversal<A> {
+        boolean traverse(Predicate<A> sink);
+    }
+}
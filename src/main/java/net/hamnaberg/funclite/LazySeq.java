@@ -0,0 +1,354 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A lazy, possibly infinite sequence. Each cell is computed at most once, the first time it is
+ * needed, and then cached; computing a cell is synchronized so concurrent readers see the same
+ * values and the generator runs once per element.
+ *
+ * Operations that skip elements ({@code filter}, {@code drop}, {@code flatMap}) loop rather than
+ * recurse, and traversals only keep the current cell, so a long sequence that nobody else
+ * references can be collected while it is being consumed.
+ */
+public final class LazySeq<A> implements Iterable<A>, InternalIterable<A> {
+    private static final Cell<Object> NIL = new Cell<>(null, null);
+    private static final LazySeq<Object> EMPTY = new LazySeq<>(NIL);
+
+    private Supplier<Cell<A>> thunk;
+    private volatile Cell<A> cell;
+
+    private LazySeq(Supplier<Cell<A>> thunk) {
+        this.thunk = thunk;
+    }
+
+    private LazySeq(Cell<A> cell) {
+        this.cell = cell;
+    }
+
+    /** factories **/
+
+    @SuppressWarnings("unchecked")
+    public static <A> LazySeq<A> empty() {
+        return (LazySeq<A>) EMPTY;
+    }
+
+    public static <A> LazySeq<A> cons(A head, Supplier<LazySeq<A>> tail) {
+        return new LazySeq<A>(new Cell<A>(head, new LazySeq<A>(() -> tail.get().force())));
+    }
+
+    @SafeVarargs
+    public static <A> LazySeq<A> of(A... values) {
+        LazySeq<A> seq = empty();
+        for (int i = values.length - 1; i >= 0; i--) {
+            seq = new LazySeq<A>(new Cell<A>(values[i], seq));
+        }
+        return seq;
+    }
+
+    /**
+     * Pulls from the iterable's iterator one element at a time, as cells are needed.
+     */
+    public static <A> LazySeq<A> from(Iterable<A> iterable) {
+        return new LazySeq<A>(() -> fromIterator(iterable.iterator()).force());
+    }
+
+    /** @return {@code seed, f(seed), f(f(seed)), ...} */
+    public static <A> LazySeq<A> iterate(A seed, Function<A, A> f) {
+        return new LazySeq<A>(new Cell<A>(seed, new LazySeq<A>(() -> iterate(f.apply(seed), f).force())));
+    }
+
+    /**
+     * Builds a sequence from a state. {@code f} returns the next element and the state to continue
+     * from, or none to end the sequence. Handy for cursor-based paging.
+     */
+    public static <S, A> LazySeq<A> unfold(S seed, Function<S, Optional<Map.Entry<A, S>>> f) {
+        return new LazySeq<A>(() -> {
+            Optional<Map.Entry<A, S>> next = f.apply(seed);
+            if (next.isNone()) {
+                return nil();
+            }
+            Map.Entry<A, S> step = next.get();
+            return new Cell<A>(step.getKey(), unfold(step.getValue(), f));
+        });
+    }
+
+    /** @return an infinite sequence of values from {@code supplier} */
+    public static <A> LazySeq<A> generate(Supplier<A> supplier) {
+        return new LazySeq<A>(() -> new Cell<A>(supplier.get(), generate(supplier)));
+    }
+
+    /** accessors **/
+
+    public boolean isEmpty() {
+        return force() == NIL;
+    }
+
+    public A head() {
+        Cell<A> c = force();
+        if (c == NIL) {
+            throw new NoSuchElementException("head of empty LazySeq");
+        }
+        return c.head;
+    }
+
+    public Optional<A> headOption() {
+        Cell<A> c = force();
+        return c == NIL ? Optional.<A>none() : Optional.fromNullable(c.head);
+    }
+
+    public LazySeq<A> tail() {
+        Cell<A> c = force();
+        return c == NIL ? this : c.tail;
+    }
+
+    /** operations **/
+
+    public LazySeq<A> take(int n) {
+        if (n <= 0) {
+            return empty();
+        }
+        return new LazySeq<A>(() -> {
+            Cell<A> c = force();
+            return c == NIL ? c : new Cell<A>(c.head, c.tail.take(n - 1));
+        });
+    }
+
+    public LazySeq<A> drop(int n) {
+        if (n <= 0) {
+            return this;
+        }
+        return new LazySeq<A>(() -> {
+            LazySeq<A> s = this;
+            for (int i = 0; i < n && !s.isEmpty(); i++) {
+                s = s.force().tail;
+            }
+            return s.force();
+        });
+    }
+
+    public LazySeq<A> takeWhile(Predicate<A> p) {
+        return new LazySeq<A>(() -> {
+            Cell<A> c = force();
+            return c == NIL || !p.test(c.head) ? nil() : new Cell<A>(c.head, c.tail.takeWhile(p));
+        });
+    }
+
+    public <B> LazySeq<B> map(Function<A, B> f) {
+        return new LazySeq<B>(() -> {
+            Cell<A> c = force();
+            return c == NIL ? LazySeq.<B>nil() : new Cell<B>(f.apply(c.head), c.tail.map(f));
+        });
+    }
+
+    /**
+     * Filtering an unforced filtered sequence adds {@code p} to the existing filter instead of
+     * wrapping it, so stacked filters are tested in one loop rather than one nested call per filter.
+     */
+    public LazySeq<A> filter(Predicate<A> p) {
+        Supplier<Cell<A>> t = thunk;
+        if (t instanceof Filter) {
+            return new LazySeq<A>(((Filter<A>) t).and(p));
+        }
+        return new LazySeq<A>(new Filter<A>(this, new Object[]{p}));
+    }
+
+    public <B> LazySeq<B> flatMap(Function<A, Iterable<B>> f) {
+        return new LazySeq<B>(() -> {
+            for (LazySeq<A> s = this; ; ) {
+                Cell<A> c = s.force();
+                if (c == NIL) {
+                    return nil();
+                }
+                Iterator<B> inner = f.apply(c.head).iterator();
+                if (inner.hasNext()) {
+                    return concat(inner, c.tail.flatMap(f)).force();
+                }
+                s = c.tail;
+            }
+        });
+    }
+
+    /**
+     * Pairs elements up with {@code f}, stopping at the end of the shorter sequence.
+     */
+    public <B, C> LazySeq<C> zip(LazySeq<B> other, BiFunction<A, B, C> f) {
+        return new LazySeq<C>(() -> {
+            Cell<A> a = force();
+            Cell<B> b = other.force();
+            return a == NIL || b == NIL ? LazySeq.<C>nil() : new Cell<C>(f.apply(a.head, b.head), a.tail.zip(b.tail, f));
+        });
+    }
+
+    /** terminals **/
+
+    /**
+     * Forces the whole sequence. Never returns for an infinite sequence; use {@link #take(int)} first.
+     */
+    public FunctionalList<A> toList() {
+        PersistentVector.Builder<A> builder = new PersistentVector.Builder<>();
+        for (Cell<A> c = force(); c != NIL; c = c.tail.force()) {
+            builder.add(c.head);
+        }
+        return FunctionalList.create(builder.build());
+    }
+
+    public Stream<A> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED), false);
+    }
+
+    public void foreach(Consumer<A> effect) {
+        for (Cell<A> c = force(); c != NIL; c = c.tail.force()) {
+            effect.accept(c.head);
+        }
+    }
+
+    @Override
+    public boolean forEachWhile(Predicate<A> p) {
+        for (Cell<A> c = force(); c != NIL; c = c.tail.force()) {
+            if (!p.test(c.head)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<A> iterator() {
+        return new Itr<A>(this);
+    }
+
+    private Cell<A> force() {
+        Cell<A> c = cell;
+        if (c == null) {
+            synchronized (this) {
+                c = cell;
+                if (c == null) {
+                    c = thunk.get();
+                    cell = c;
+                    thunk = null;
+                }
+            }
+        }
+        return c;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> Cell<A> nil() {
+        return (Cell<A>) NIL;
+    }
+
+    private static <A> LazySeq<A> fromIterator(Iterator<A> it) {
+        return new LazySeq<A>(() -> it.hasNext() ? new Cell<A>(it.next(), fromIterator(it)) : LazySeq.<A>nil());
+    }
+
+    private static <A> LazySeq<A> concat(Iterator<A> it, LazySeq<A> rest) {
+        return new LazySeq<A>(() -> it.hasNext() ? new Cell<A>(it.next(), concat(it, rest)) : rest.force());
+    }
+
+    /**
+     * Static so that it does not pin the head of the sequence through an outer reference.
+     */
+    private static final class Itr<A> implements Iterator<A> {
+        private LazySeq<A> current;
+
+        Itr(LazySeq<A> start) {
+            this.current = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !current.isEmpty();
+        }
+
+        @Override
+        public A next() {
+            Cell<A> c = current.force();
+            if (c == NIL) {
+                throw new NoSuchElementException();
+            }
+            current = c.tail;
+            return c.head;
+        }
+    }
+
+    /**
+     * The thunk of a filtered sequence. The predicates are kept as {@code Object[]} and tested in order.
+     */
+    private static final class Filter<A> implements Supplier<Cell<A>> {
+        private final LazySeq<A> source;
+        private final Object[] predicates;
+
+        Filter(LazySeq<A> source, Object[] predicates) {
+            this.source = source;
+            this.predicates = predicates;
+        }
+
+        Filter<A> and(Predicate<A> p) {
+            Object[] combined = Arrays.copyOf(predicates, predicates.length + 1);
+            combined[predicates.length] = p;
+            return new Filter<A>(source, combined);
+        }
+
+        @Override
+        public Cell<A> get() {
+            for (LazySeq<A> s = source; ; ) {
+                Cell<A> c = s.force();
+                if (c == NIL) {
+                    return c;
+                }
+                if (test(c.head)) {
+                    return new Cell<A>(c.head, new LazySeq<A>(new Filter<A>(c.tail, predicates)));
+                }
+                s = c.tail;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean test(A a) {
+            for (Object p : predicates) {
+                if (!((Predicate<A>) p).test(a)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Cell<A> {
+        final A head;
+        final LazySeq<A> tail;
+
+        Cell(A head, LazySeq<A> tail) {
+            this.head = head;
+            this.tail = tail;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+/**
+ * Immutable list of {@code long} values backed by a {@code long[]}, so no element is ever boxed.
+ */
+public final class LongFunctionalList {
+    private static final LongFunctionalList EMPTY = new LongFunctionalList(new long[0]);
+
+    private final long[] values;
+
+    private LongFunctionalList(long[] values) {
+        this.values = values;
+    }
+
+    /** factories **/
+
+    public static LongFunctionalList empty() {
+        return EMPTY;
+    }
+
+    public static LongFunctionalList of(long... values) {
+        return copyOf(values);
+    }
+
+    public static LongFunctionalList copyOf(long[] values) {
+        return values.length == 0 ? EMPTY : new LongFunctionalList(values.clone());
+    }
+
+    public static LongFunctionalList copyOf(Iterable<Long> iterable) {
+        if (iterable instanceof List && iterable instanceof RandomAccess) {
+            List<Long> list = (List<Long>) iterable;
+            long[] values = new long[list.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = list.get(i);
+            }
+            return wrap(values);
+        }
+        return wrap(CollectionOps.stream(iterable).mapToLong(Long::longValue).toArray());
+    }
+
+    static LongFunctionalList wrap(long[] values) {
+        return values.length == 0 ? EMPTY : new LongFunctionalList(values);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public long get(int index) {
+        return values[index];
+    }
+
+    public LongFunctionalList map(LongUnaryOperator f) {
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = f.applyAsLong(values[i]);
+        }
+        return wrap(result);
+    }
+
+    public <B> FunctionalList<B> mapToObj(LongFunction<B> f) {
+        List<B> result = CollectionOps.newArrayList();
+        for (long value : values) {
+            result.add(f.apply(value));
+        }
+        return FunctionalList.create(result);
+    }
+
+    public FunctionalList<Long> boxed() {
+        return mapToObj(Long::valueOf);
+    }
+
+    public LongFunctionalList filter(LongPredicate pred) {
+        long[] result = new long[values.length];
+        int n = 0;
+        for (long value : values) {
+            if (pred.test(value)) {
+                result[n++] = value;
+            }
+        }
+        if (n == values.length) {
+            return this;
+        }
+        return wrap(Arrays.copyOf(result, n));
+    }
+
+    public void foreach(LongConsumer effect) {
+        for (long value : values) {
+            effect.accept(value);
+        }
+    }
+
+    public boolean exists(LongPredicate pred) {
+        for (long value : values) {
+            if (pred.test(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean forall(LongPredicate pred) {
+        for (long value : values) {
+            if (!pred.test(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long reduce(LongMonoid m) {
+        long u = m.zero();
+        for (long value : values) {
+            u = m.append(u, value);
+        }
+        return u;
+    }
+
+    public long sum() {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    public OptionalLong min() {
+        if (values.length == 0) {
+            return OptionalLong.none();
+        }
+        long min = values[0];
+        for (int i = 1; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return OptionalLong.some(min);
+    }
+
+    public OptionalLong max() {
+        if (values.length == 0) {
+            return OptionalLong.none();
+        }
+        long max = values[0];
+        for (int i = 1; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return OptionalLong.some(max);
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(values);
+    }
+
+    public long[] toArray() {
+        return values.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        return Arrays.equals(values, ((LongFunctionalList) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
@@ -30,7 +30,12 @@ public final class MapOps {
     }
 
     public static <K,V> Map<K,V> newHashMap(Map<K, V> fromMap) {
-        return new HashMap<>(fromMap);
+        long start = Metrics.start();
+        Object copy = CopyEvents.begin();
+        Map<K, V> result = new HashMap<>(fromMap);
+        CopyEvents.end(copy, "MapOps.newHashMap", result.size());
+        Metrics.record("MapOps.newHashMap", start, fromMap, result);
+        return result;
     }
 
     public static <K,V> Map<K,V> newHashMap(K k1, V v1) {
@@ -74,13 +79,36 @@ public final class MapOps {
     }
 
     public static <K, V> void foreach(Map<K, V> input, Consumer<Map.Entry<K, V>> effect){
-        Set<Map.Entry<K,V>> entries = input.entrySet();
-        for (Map.Entry<K, V> entry : entries) {
+        forEachWhile(input, entry -> {
             effect.accept(entry);
+            return true;
+        });
+    }
+
+    public static <K, V> boolean forEachWhile(Map<K, V> input, Predicate<Map.Entry<K, V>> p) {
+        if (input instanceof InternalIterable) {
+            @SuppressWarnings("unchecked")
+            InternalIterable<Map.Entry<K, V>> internal = (InternalIterable<Map.Entry<K, V>>) input;
+            return internal.forEachWhile(p);
         }
+        for (Map.Entry<K, V> entry : input.entrySet()) {
+            if (!p.test(entry)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public static <K, V, V2> Map<K, V2> mapValues(Map<K, V> input, Function<V, V2> f) {
+        long start = Metrics.start();
+        Object copy = CopyEvents.begin();
+        Map<K, V2> result = mapValuesMap(input, f);
+        CopyEvents.end(copy, "MapOps.mapValues", result.size());
+        Metrics.record("MapOps.mapValues", start, input, result);
+        return result;
+    }
+
+    static <K, V, V2> Map<K, V2> mapValuesMap(Map<K, V> input, Function<V, V2> f) {
         Map<K, V2> map = MapOps.newHashMap();
         Set<Map.Entry<K,V>> entries = input.entrySet();
         for (Map.Entry<K, V> entry : entries) {
@@ -90,10 +118,24 @@ public final class MapOps {
     }
 
     public static <K,V> Map<K, V> filterKeys(Map<K, V> input, final Predicate<K> predicate) {
-        return filter(input, input1 -> predicate.test(input1.getKey()));
+        long start = Metrics.start();
+        Object copy = CopyEvents.begin();
+        Map<K, V> result = filterMap(input, input1 -> predicate.test(input1.getKey()));
+        CopyEvents.end(copy, "MapOps.filterKeys", result.size());
+        Metrics.record("MapOps.filterKeys", start, input, result);
+        return result;
     }
 
     public static <K,V> Map<K, V> filter(Map<K, V> input, Predicate<Map.Entry<K, V>> predicate) {
+        long start = Metrics.start();
+        Object copy = CopyEvents.begin();
+        Map<K, V> result = filterMap(input, predicate);
+        CopyEvents.end(copy, "MapOps.filter", result.size());
+        Metrics.record("MapOps.filter", start, input, result);
+        return result;
+    }
+
+    static <K,V> Map<K, V> filterMap(Map<K, V> input, Predicate<Map.Entry<K, V>> predicate) {
         Map<K, V> map = MapOps.newHashMap();
         for (Map.Entry<K, V> entry : input.entrySet()) {
             if (predicate.test(entry)) {
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Read-only map computed from another map on access. The source is expected not to change
+ * while the view is in use. With {@code memoize}, each key is computed at most once.
+ */
+abstract class MapView<K, V> extends AbstractMap<K, V> {
+    private static final Object NOT_FOUND = new Object();
+
+    final Map<K, ?> source;
+
+    MapView(Map<K, ?> source) {
+        this.source = source;
+    }
+
+    static <K, V, V2> MapView<K, V2> mapValues(Map<K, V> source, Function<V, V2> f, boolean memoize) {
+        return new MappedValues<>(source, f, memoize);
+    }
+
+    static <K, V> MapView<K, V> filter(Map<K, V> source, Predicate<Entry<K, V>> p, boolean memoize) {
+        return new Filtered<>(source, p, memoize);
+    }
+
+    private static final class MappedValues<K, V, V2> extends MapView<K, V2> {
+        private final Function<V, V2> f;
+        private final ConcurrentHashMap<Object, V2> cache;
+
+        MappedValues(Map<K, V> source, Function<V, V2> f, boolean memoize) {
+            super(source);
+            this.f = f;
+            this.cache = memoize ? new ConcurrentHashMap<>() : null;
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return source.containsKey(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V2 get(Object key) {
+            V value = (V) source.get(key);
+            if (value == null && !source.containsKey(key)) {
+                return null;
+            }
+            return compute(key, value);
+        }
+
+        private V2 compute(Object key, V value) {
+            if (cache == null || key == null) {
+                return f.apply(value);
+            }
+            V2 cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            V2 computed = f.apply(value);
+            if (computed != null) {
+                V2 raced = cache.putIfAbsent(key, computed);
+                return raced != null ? raced : computed;
+            }
+            return null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Set<Entry<K, V2>> entrySet() {
+            Map<K, V> typed = (Map<K, V>) source;
+            return new AbstractSet<Entry<K, V2>>() {
+                @Override
+                public Iterator<Entry<K, V2>> iterator() {
+                    Iterator<Entry<K, V>> it = typed.entrySet().iterator();
+                    return new Iterator<Entry<K, V2>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V2> next() {
+                            Entry<K, V> entry = it.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), compute(entry.getKey(), entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return source.size();
+                }
+            };
+        }
+    }
+
+    private static final class Filtered<K, V> extends MapView<K, V> {
+        private final Predicate<Entry<K, V>> p;
+        private final ConcurrentHashMap<Object, Boolean> cache;
+        private volatile int size = -1;
+
+        Filtered(Map<K, V> source, Predicate<Entry<K, V>> p, boolean memoize) {
+            super(source);
+            this.p = p;
+            this.cache = memoize ? new ConcurrentHashMap<>() : null;
+        }
+
+        @Override
+        public int size() {
+            int s = size;
+            if (s < 0) {
+                s = 0;
+                for (Iterator<Entry<K, V>> it = entrySet().iterator(); it.hasNext(); it.next()) {
+                    s++;
+                }
+                if (cache != null) {
+                    size = s;
+                }
+            }
+            return s;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return lookup(key) != NOT_FOUND;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            Object value = lookup(key);
+            return value == NOT_FOUND ? null : (V) value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object lookup(Object key) {
+            V value = (V) source.get(key);
+            if (value == null && !source.containsKey(key)) {
+                return NOT_FOUND;
+            }
+            return test((K) key, value) ? value : NOT_FOUND;
+        }
+
+        private boolean test(K key, V value) {
+            if (cache == null || key == null) {
+                return p.test(new SimpleImmutableEntry<>(key, value));
+            }
+            Boolean cached = cache.get(key);
+            if (cached == null) {
+                cached = p.test(new SimpleImmutableEntry<>(key, value));
+                cache.putIfAbsent(key, cached);
+            }
+            return cached;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Set<Entry<K, V>> entrySet() {
+            Map<K, V> typed = (Map<K, V>) source;
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    Iterator<Entry<K, V>> it = typed.entrySet().iterator();
+                    return new Iterator<Entry<K, V>>() {
+                        private Entry<K, V> next;
+
+                        @Override
+                        public boolean hasNext() {
+                            while (next == null && it.hasNext()) {
+                                Entry<K, V> candidate = it.next();
+                                if (test(candidate.getKey(), candidate.getValue())) {
+                                    next = candidate;
+                                }
+                            }
+                            return next != null;
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<K, V> result = new SimpleImmutableEntry<>(next);
+                            next = null;
+                            return result;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return Filtered.this.size();
+                }
+            };
+        }
+    }
+}
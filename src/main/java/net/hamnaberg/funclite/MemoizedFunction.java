@@ -0,0 +1,276 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe memoizing wrapper created by {@link Functions#memoize(Function, CacheSpec)}.
+ *
+ * Values live in a {@link ConcurrentHashMap}, so hits never block. Eviction bookkeeping is kept
+ * under a lock; reads only record themselves if the lock is free, trading a little policy
+ * precision for uncontended hits. Null results are returned but not cached, and null keys are
+ * not supported.
+ */
+public final class MemoizedFunction<A, B> implements Function<A, B> {
+    private final Function<A, B> f;
+    private final ConcurrentHashMap<A, Node<A, B>> data = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final boolean tracked;
+    private final long maximumSize;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier ticker;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AccessOrder<A, B> window = new AccessOrder<>();
+    private final AccessOrder<A, B> main = new AccessOrder<>();
+    private final ArrayDeque<Node<A, B>> writeOrder = new ArrayDeque<>();
+    private final FrequencySketch sketch;
+    private final long windowMaximum;
+
+    MemoizedFunction(Function<A, B> f, CacheSpec spec) {
+        this.f = f;
+        this.tracked = spec.isBounded() || spec.isExpiring();
+        this.maximumSize = spec.getMaximumSize();
+        this.expireAfterWriteNanos = spec.getExpireAfterWriteNanos();
+        this.ticker = spec.getTicker();
+        boolean admission = spec.isBounded() && spec.getEviction() == CacheSpec.Eviction.TINY_LFU;
+        this.sketch = admission ? new FrequencySketch(maximumSize) : null;
+        this.windowMaximum = admission ? Math.max(1, maximumSize / 100) : maximumSize;
+    }
+
+    @Override
+    public B apply(A key) {
+        Node<A, B> node = data.get(key);
+        if (node != null && !isExpired(node, now())) {
+            hits.increment();
+            if (tracked) {
+                afterRead(node);
+            }
+            return node.value;
+        }
+        misses.increment();
+        B value = f.apply(key);
+        if (value == null) {
+            return null;
+        }
+        Node<A, B> created = new Node<>(key, value, tracked ? now() : 0);
+        Node<A, B> previous = data.put(key, created);
+        if (tracked) {
+            afterWrite(created, previous);
+        }
+        return value;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    public long size() {
+        return data.size();
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            data.clear();
+            window.clear();
+            main.clear();
+            writeOrder.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void afterRead(Node<A, B> node) {
+        if (lock.tryLock()) {
+            try {
+                if (node.queue != null) {
+                    node.queue.moveToEnd(node);
+                }
+                if (sketch != null) {
+                    sketch.increment(node.key);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void afterWrite(Node<A, B> created, Node<A, B> previous) {
+        lock.lock();
+        try {
+            if (previous != null && previous.queue != null) {
+                previous.queue.remove(previous);
+            }
+            if (data.get(created.key) != created) {
+                // A concurrent write already replaced this node.
+                return;
+            }
+            if (sketch != null) {
+                sketch.increment(created.key);
+            }
+            window.addLast(created);
+            if (expireAfterWriteNanos > 0) {
+                writeOrder.addLast(created);
+                expire(now());
+            }
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void expire(long now) {
+        Node<A, B> head;
+        while ((head = writeOrder.peekFirst()) != null && (head.queue == null || isExpired(head, now))) {
+            writeOrder.pollFirst();
+            if (head.queue != null) {
+                evict(head);
+            }
+        }
+    }
+
+    private void evict() {
+        if (sketch == null) {
+            while (window.size() > maximumSize) {
+                evict(window.first());
+            }
+            return;
+        }
+        while (window.size() > windowMaximum) {
+            Node<A, B> candidate = window.first();
+            window.remove(candidate);
+            if (window.size() + main.size() < maximumSize) {
+                main.addLast(candidate);
+                continue;
+            }
+            Node<A, B> victim = main.first();
+            if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+                main.addLast(candidate);
+            }
+            else {
+                // Full with nothing in main to compete against (the window is the whole cache), or the candidate lost.
+                evict(candidate);
+            }
+        }
+    }
+
+    private void evict(Node<A, B> node) {
+        if (node.queue != null) {
+            node.queue.remove(node);
+        }
+        data.remove(node.key, node);
+        evictions.increment();
+    }
+
+    private boolean isExpired(Node<A, B> node, long now) {
+        return expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos;
+    }
+
+    private long now() {
+        return expireAfterWriteNanos > 0 ? ticker.getAsLong() : 0;
+    }
+
+    private static final class Node<A, B> {
+        final A key;
+        final B value;
+        final long writeTime;
+        AccessOrder<A, B> queue;
+        Node<A, B> prev;
+        Node<A, B> next;
+
+        Node(A key, B value, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list, least recently used first. A node knows which list it is in.
+     */
+    private static final class AccessOrder<A, B> {
+        private Node<A, B> head;
+        private Node<A, B> tail;
+        private long size;
+
+        long size() {
+            return size;
+        }
+
+        Node<A, B> first() {
+            return head;
+        }
+
+        void addLast(Node<A, B> node) {
+            node.queue = this;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            }
+            else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        void remove(Node<A, B> node) {
+            if (node.prev == null) {
+                head = node.next;
+            }
+            else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            }
+            else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.queue = null;
+            size--;
+        }
+
+        void moveToEnd(Node<A, B> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            for (Node<A, B> node = head; node != null; node = node.next) {
+                node.queue = null;
+            }
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+}
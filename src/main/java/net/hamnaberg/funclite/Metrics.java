@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Holds the installed {@link OpsMetrics} and the timing helpers used at instrumented call sites:
+ *
+ * <pre>
+ * long start = Metrics.start();
+ * ...
+ * Metrics.record("CollectionOps.map", start, input, output);
+ * </pre>
+ */
+final class Metrics {
+    static final OpsMetrics NONE = (operation, inputSize, outputSize, nanos) -> { };
+
+    private static final boolean SUPPORTED = !"false".equals(System.getProperty("funclite.metrics"));
+
+    private static volatile OpsMetrics sink = NONE;
+
+    private Metrics() {
+    }
+
+    static void install(OpsMetrics metrics) {
+        Preconditions.checkArgument(SUPPORTED || metrics == NONE, "Metrics are disabled with -Dfunclite.metrics=false");
+        sink = Objects.requireNonNull(metrics);
+    }
+
+    static OpsMetrics installed() {
+        return sink;
+    }
+
+    /**
+     * @return the current time, or 0 if nothing is installed
+     */
+    static long start() {
+        if (!SUPPORTED || sink == NONE) {
+            return 0L;
+        }
+        return System.nanoTime();
+    }
+
+    static void record(String operation, long start, Object input, Object output) {
+        if (!SUPPORTED || start == 0L) {
+            return;
+        }
+        OpsMetrics metrics = sink;
+        if (metrics != NONE) {
+            metrics.record(operation, sizeOf(input), sizeOf(output), System.nanoTime() - start);
+        }
+    }
+
+    private static long sizeOf(Object o) {
+        if (o instanceof Collection) {
+            return ((Collection<?>) o).size();
+        }
+        if (o instanceof Map) {
+            return ((Map<?, ?>) o).size();
+        }
+        if (o instanceof IntFunctionalList) {
+            return ((IntFunctionalList) o).size();
+        }
+        if (o instanceof LongFunctionalList) {
+            return ((LongFunctionalList) o).size();
+        }
+        if (o instanceof DoubleFunctionalList) {
+            return ((DoubleFunctionalList) o).size();
+        }
+        return -1;
+    }
+}
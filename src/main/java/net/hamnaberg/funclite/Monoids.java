@@ -77,4 +77,87 @@ public class Monoids {
         };
     }
 
+    public static IntMonoid intPlusPrimitive() {
+        return new IntMonoid() {
+            @Override
+            public int zero() {
+                return 0;
+            }
+
+            @Override
+            public int append(int a, int b) {
+                return a + b;
+            }
+        };
+    }
+
+    public static IntMonoid intProductPrimitive() {
+        return new IntMonoid() {
+            @Override
+            public int zero() {
+                return 1;
+            }
+
+            @Override
+            public int append(int a, int b) {
+                return a * b;
+            }
+        };
+    }
+
+    public static LongMonoid longPlusPrimitive() {
+        return new LongMonoid() {
+            @Override
+            public long zero() {
+                return 0L;
+            }
+
+            @Override
+            public long append(long a, long b) {
+                return a + b;
+            }
+        };
+    }
+
+    public static LongMonoid longProductPrimitive() {
+        return new LongMonoid() {
+            @Override
+            public long zero() {
+                return 1L;
+            }
+
+            @Override
+            public long append(long a, long b) {
+                return a * b;
+            }
+        };
+    }
+
+    public static DoubleMonoid doublePlusPrimitive() {
+        return new DoubleMonoid() {
+            @Override
+            public double zero() {
+                return 0.0;
+            }
+
+            @Override
+            public double append(double a, double b) {
+                return a + b;
+            }
+        };
+    }
+
+    public static DoubleMonoid doubleProductPrimitive() {
+        return new DoubleMonoid() {
+            @Override
+            public double zero() {
+                return 1.0;
+            }
+
+            @Override
+            public double append(double a, double b) {
+                return a * b;
+            }
+        };
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+/**
+ * Receives one event per instrumented operation in {@link CollectionOps}, {@link MapOps},
+ * {@link FunctionalList} and {@link FunctionalMap}.
+ *
+ * Nothing is recorded until an implementation is installed with {@link #install(OpsMetrics)}.
+ * Until then every instrumented call pays for one static field check; running with
+ * {@code -Dfunclite.metrics=false} turns the check into a constant the JIT folds away, and
+ * disables {@code install}.
+ *
+ * Implementations are called on the thread running the operation and must be thread-safe.
+ */
+public interface OpsMetrics {
+    /**
+     * @param operation   name such as {@code "CollectionOps.map"}
+     * @param inputSize   number of input elements, or -1 if it is not known without iterating
+     * @param outputSize  number of output elements, or -1 if it is not known without iterating
+     * @param nanos       time spent in the operation
+     */
+    void record(String operation, long inputSize, long outputSize, long nanos);
+
+    static OpsMetrics none() {
+        return Metrics.NONE;
+    }
+
+    static void install(OpsMetrics metrics) {
+        Metrics.install(metrics);
+    }
+
+    static OpsMetrics installed() {
+        return Metrics.installed();
+    }
+}
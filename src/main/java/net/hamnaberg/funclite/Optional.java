@@ -16,14 +16,16 @@
 
 package net.hamnaberg.funclite;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
-public abstract class Optional<A> implements Iterable<A> {
+public abstract class Optional<A> implements Iterable<A>, InternalIterable<A> {
     public static None<Object> NONE = new None<Object>();
 
     Optional() {
@@ -65,13 +67,9 @@ public abstract class Optional<A> implements Iterable<A> {
         }
     }
 
-    public Stream<A> stream() {
-        return CollectionOps.stream(this);
-    }
+    public abstract Stream<A> stream();
 
-    public final void foreach(Consumer<A> e) {
-        CollectionOps.foreach(this, e);
-    }
+    public abstract void foreach(Consumer<A> e);
 
     public final Optional<A> filter(Predicate<A> input) {
         if (isSome() && input.test(get())) {
@@ -82,17 +80,11 @@ public abstract class Optional<A> implements Iterable<A> {
         }
     }
 
-    public boolean forall(Predicate<A> input) {
-        return CollectionOps.forall(this, input);
-    }
+    public abstract boolean forall(Predicate<A> input);
 
-    public boolean exists(Predicate<A> input) {
-        return CollectionOps.exists(this, input);
-    }
+    public abstract boolean exists(Predicate<A> input);
 
-    public boolean contains(A value) {
-        return exists(v -> v.equals(value));
-    }
+    public abstract boolean contains(A value);
 
     public static <A> Optional<A> fromNullable(A value) {
         return value != null ? some(value) : Optional.<A>none();
@@ -141,27 +133,7 @@ public abstract class Optional<A> implements Iterable<A> {
     }
 
     @Override
-    public final Iterator<A> iterator() {
-        return new Iterator<A>() {
-            private volatile boolean used = false;
-            @Override
-            public boolean hasNext() {
-                return !used && isSome();
-            }
-
-            @Override
-            public A next() {
-                A value = get();
-                used = true;
-                return value;
-            }
-
-            @Override
-            public void remove() {
-                throw new UnsupportedOperationException("Not supported");
-            }
-        };
-    }
+    public abstract Iterator<A> iterator();
 }
 
 final class Some<A> extends Optional<A> {
@@ -182,6 +154,57 @@ final class Some<A> extends Optional<A> {
         return true;
     }
 
+    @Override
+    public Stream<A> stream() {
+        return Stream.of(value);
+    }
+
+    @Override
+    public void foreach(Consumer<A> e) {
+        e.accept(value);
+    }
+
+    @Override
+    public boolean forall(Predicate<A> input) {
+        return input.test(value);
+    }
+
+    @Override
+    public boolean forEachWhile(Predicate<A> p) {
+        return p.test(value);
+    }
+
+    @Override
+    public boolean exists(Predicate<A> input) {
+        return input.test(value);
+    }
+
+    @Override
+    public boolean contains(A candidate) {
+        return value.equals(candidate);
+    }
+
+    @Override
+    public Iterator<A> iterator() {
+        return new Iterator<A>() {
+            private boolean used = false;
+
+            @Override
+            public boolean hasNext() {
+                return !used;
+            }
+
+            @Override
+            public A next() {
+                if (used) {
+                    throw new NoSuchElementException();
+                }
+                used = true;
+                return value;
+            }
+        };
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -226,6 +249,40 @@ final class None<A> extends Optional<A> {
         return false;
     }
 
+    @Override
+    public Stream<A> stream() {
+        return Stream.empty();
+    }
+
+    @Override
+    public void foreach(Consumer<A> e) {
+    }
+
+    @Override
+    public boolean forall(Predicate<A> input) {
+        return true;
+    }
+
+    @Override
+    public boolean forEachWhile(Predicate<A> p) {
+        return true;
+    }
+
+    @Override
+    public boolean exists(Predicate<A> input) {
+        return false;
+    }
+
+    @Override
+    public boolean contains(A candidate) {
+        return false;
+    }
+
+    @Override
+    public Iterator<A> iterator() {
+        return Collections.emptyIterator();
+    }
+
     @Override
     public String toString() {
         return "None";
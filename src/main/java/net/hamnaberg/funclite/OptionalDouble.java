@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * {@link Optional} counterpart for {@code double} values that never boxes. None is a shared instance.
+ */
+public final class OptionalDouble {
+    private static final OptionalDouble NONE = new OptionalDouble(false, 0);
+
+    private final boolean some;
+    private final double value;
+
+    private OptionalDouble(boolean some, double value) {
+        this.some = some;
+        this.value = value;
+    }
+
+    public static OptionalDouble some(double value) {
+        return new OptionalDouble(true, value);
+    }
+
+    public static OptionalDouble of(double value) {
+        return some(value);
+    }
+
+    public static OptionalDouble none() {
+        return NONE;
+    }
+
+    public static OptionalDouble empty() {
+        return NONE;
+    }
+
+    public double get() {
+        if (!some) {
+            throw new UnsupportedOperationException("Cannot get from None");
+        }
+        return value;
+    }
+
+    public boolean isSome() {
+        return some;
+    }
+
+    public boolean isNone() {
+        return !some;
+    }
+
+    public double getOrElse(double orElse) {
+        return some ? value : orElse;
+    }
+
+    public OptionalDouble map(DoubleUnaryOperator f) {
+        return some ? some(f.applyAsDouble(value)) : NONE;
+    }
+
+    public <B> Optional<B> mapToObj(DoubleFunction<B> f) {
+        return some ? Optional.fromNullable(f.apply(value)) : Optional.<B>none();
+    }
+
+    public OptionalDouble flatMap(DoubleFunction<OptionalDouble> f) {
+        return some ? f.apply(value) : NONE;
+    }
+
+    public OptionalDouble filter(DoublePredicate pred) {
+        return some && pred.test(value) ? this : NONE;
+    }
+
+    public boolean exists(DoublePredicate pred) {
+        return some && pred.test(value);
+    }
+
+    public boolean forall(DoublePredicate pred) {
+        return !some || pred.test(value);
+    }
+
+    public boolean contains(double candidate) {
+        return some && value == candidate;
+    }
+
+    public void foreach(DoubleConsumer effect) {
+        if (some) {
+            effect.accept(value);
+        }
+    }
+
+    public Optional<Double> boxed() {
+        return some ? Optional.some(value) : Optional.<Double>none();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        OptionalDouble that = (OptionalDouble) o;
+        return some == that.some && Double.compare(value, that.value) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return some ? Double.hashCode(value) : 31;
+    }
+
+    @Override
+    public String toString() {
+        return some ? String.format("Some{%s}", value) : "None";
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * {@link Optional} counterpart for {@code int} values that never boxes. None is a shared instance.
+ */
+public final class OptionalInt {
+    private static final OptionalInt NONE = new OptionalInt(false, 0);
+
+    private final boolean some;
+    private final int value;
+
+    private OptionalInt(boolean some, int value) {
+        this.some = some;
+        this.value = value;
+    }
+
+    public static OptionalInt some(int value) {
+        return new OptionalInt(true, value);
+    }
+
+    public static OptionalInt of(int value) {
+        return some(value);
+    }
+
+    public static OptionalInt none() {
+        return NONE;
+    }
+
+    public static OptionalInt empty() {
+        return NONE;
+    }
+
+    public int get() {
+        if (!some) {
+            throw new UnsupportedOperationException("Cannot get from None");
+        }
+        return value;
+    }
+
+    public boolean isSome() {
+        return some;
+    }
+
+    public boolean isNone() {
+        return !some;
+    }
+
+    public int getOrElse(int orElse) {
+        return some ? value : orElse;
+    }
+
+    public OptionalInt map(IntUnaryOperator f) {
+        return some ? some(f.applyAsInt(value)) : NONE;
+    }
+
+    public <B> Optional<B> mapToObj(IntFunction<B> f) {
+        return some ? Optional.fromNullable(f.apply(value)) : Optional.<B>none();
+    }
+
+    public OptionalInt flatMap(IntFunction<OptionalInt> f) {
+        return some ? f.apply(value) : NONE;
+    }
+
+    public OptionalInt filter(IntPredicate pred) {
+        return some && pred.test(value) ? this : NONE;
+    }
+
+    public boolean exists(IntPredicate pred) {
+        return some && pred.test(value);
+    }
+
+    public boolean forall(IntPredicate pred) {
+        return !some || pred.test(value);
+    }
+
+    public boolean contains(int candidate) {
+        return some && value == candidate;
+    }
+
+    public void foreach(IntConsumer effect) {
+        if (some) {
+            effect.accept(value);
+        }
+    }
+
+    public Optional<Integer> boxed() {
+        return some ? Optional.some(value) : Optional.<Integer>none();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        OptionalInt that = (OptionalInt) o;
+        return some == that.some && value == that.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return some ? value : 31;
+    }
+
+    @Override
+    public String toString() {
+        return some ? String.format("Some{%s}", value) : "None";
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * {@link Optional} counterpart for {@code long} values that never boxes. None is a shared instance.
+ */
+public final class OptionalLong {
+    private static final OptionalLong NONE = new OptionalLong(false, 0);
+
+    private final boolean some;
+    private final long value;
+
+    private OptionalLong(boolean some, long value) {
+        this.some = some;
+        this.value = value;
+    }
+
+    public static OptionalLong some(long value) {
+        return new OptionalLong(true, value);
+    }
+
+    public static OptionalLong of(long value) {
+        return some(value);
+    }
+
+    public static OptionalLong none() {
+        return NONE;
+    }
+
+    public static OptionalLong empty() {
+        return NONE;
+    }
+
+    public long get() {
+        if (!some) {
+            throw new UnsupportedOperationException("Cannot get from None");
+        }
+        return value;
+    }
+
+    public boolean isSome() {
+        return some;
+    }
+
+    public boolean isNone() {
+        return !some;
+    }
+
+    public long getOrElse(long orElse) {
+        return some ? value : orElse;
+    }
+
+    public OptionalLong map(LongUnaryOperator f) {
+        return some ? some(f.applyAsLong(value)) : NONE;
+    }
+
+    public <B> Optional<B> mapToObj(LongFunction<B> f) {
+        return some ? Optional.fromNullable(f.apply(value)) : Optional.<B>none();
+    }
+
+    public OptionalLong flatMap(LongFunction<OptionalLong> f) {
+        return some ? f.apply(value) : NONE;
+    }
+
+    public OptionalLong filter(LongPredicate pred) {
+        return some && pred.test(value) ? this : NONE;
+    }
+
+    public boolean exists(LongPredicate pred) {
+        return some && pred.test(value);
+    }
+
+    public boolean forall(LongPredicate pred) {
+        return !some || pred.test(value);
+    }
+
+    public boolean contains(long candidate) {
+        return some && value == candidate;
+    }
+
+    public void foreach(LongConsumer effect) {
+        if (some) {
+            effect.accept(value);
+        }
+    }
+
+    public Optional<Long> boxed() {
+        return some ? Optional.some(value) : Optional.<Long>none();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        OptionalLong that = (OptionalLong) o;
+        return some == that.some && value == that.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return some ? Long.hashCode(value) : 31;
+    }
+
+    @Override
+    public String toString() {
+        return some ? String.format("Some{%s}", value) : "None";
+    }
+}
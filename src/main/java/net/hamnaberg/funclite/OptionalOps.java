@@ -18,5 +18,27 @@ public class OptionalOps {
         return Optional.fromNullable(opt.orElse(null));
     }
 
+    public static java.util.OptionalInt toJavaOptional(OptionalInt opt) {
+        return opt.isSome() ? java.util.OptionalInt.of(opt.get()) : java.util.OptionalInt.empty();
+    }
+
+    public static OptionalInt fromJavaOptional(java.util.OptionalInt opt) {
+        return opt.isPresent() ? OptionalInt.some(opt.getAsInt()) : OptionalInt.none();
+    }
+
+    public static java.util.OptionalLong toJavaOptional(OptionalLong opt) {
+        return opt.isSome() ? java.util.OptionalLong.of(opt.get()) : java.util.OptionalLong.empty();
+    }
 
+    public static OptionalLong fromJavaOptional(java.util.OptionalLong opt) {
+        return opt.isPresent() ? OptionalLong.some(opt.getAsLong()) : OptionalLong.none();
+    }
+
+    public static java.util.OptionalDouble toJavaOptional(OptionalDouble opt) {
+        return opt.isSome() ? java.util.OptionalDouble.of(opt.get()) : java.util.OptionalDouble.empty();
+    }
+
+    public static OptionalDouble fromJavaOptional(java.util.OptionalDouble opt) {
+        return opt.isPresent() ? OptionalDouble.some(opt.getAsDouble()) : OptionalDouble.none();
+    }
 }
@@ -0,0 +1,521 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Immutable hash array mapped trie used as backing for {@link FunctionalMap}.
+ *
+ * Updates copy only the nodes on the path to the changed key. A {@link Builder} owns an
+ * edit token; nodes created under that token are mutated in place until {@link Builder#build()},
+ * which makes batch updates cheap without ever touching nodes shared with other maps.
+ */
+final class PersistentHashMap<K, V> extends AbstractMap<K, V> implements InternalIterable<Map.Entry<K, V>> {
+    private static final Object NULL_KEY = new Object();
+    private static final Object NOT_FOUND = new Object();
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    static <K, V> PersistentHashMap<K, V> copyOf(Map<K, V> map) {
+        if (map instanceof PersistentHashMap) {
+            return (PersistentHashMap<K, V>) map;
+        }
+        Builder<K, V> builder = new Builder<>(PersistentHashMap.<K, V>empty());
+        for (Entry<K, V> entry : map.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != NOT_FOUND;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Object value = find(key);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    PersistentHashMap<K, V> updated(K key, V value) {
+        Object k = maskNull(key);
+        boolean[] changed = new boolean[1];
+        Node newRoot = rootOrEmpty(root).put(null, 0, hash(k), k, value, changed);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, changed[0] ? size + 1 : size);
+    }
+
+    PersistentHashMap<K, V> removed(Object key) {
+        if (root == null) {
+            return this;
+        }
+        Object k = maskNull(key);
+        boolean[] changed = new boolean[1];
+        Node newRoot = root.remove(null, 0, hash(k), k, changed);
+        if (!changed[0]) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    PersistentHashMap<K, V> merge(Map<K, V> other, Semigroup<V> semigroup) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (other instanceof PersistentHashMap && other.size() > size) {
+            PersistentHashMap<K, V> larger = (PersistentHashMap<K, V>) other;
+            Builder<K, V> builder = new Builder<>(larger);
+            for (Entry<K, V> entry : entrySet()) {
+                Object found = larger.find(entry.getKey());
+                builder.put(entry.getKey(), found == NOT_FOUND ? entry.getValue() : semigroup.append(entry.getValue(), (V) found));
+            }
+            return builder.build();
+        }
+        Builder<K, V> builder = new Builder<>(this);
+        for (Entry<K, V> entry : other.entrySet()) {
+            Object found = find(entry.getKey());
+            builder.put(entry.getKey(), found == NOT_FOUND ? entry.getValue() : semigroup.append((V) found, entry.getValue()));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public boolean forEachWhile(Predicate<Entry<K, V>> p) {
+        return root == null || forEachWhile(root.array, p);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> boolean forEachWhile(Object[] array, Predicate<Entry<K, V>> p) {
+        for (int i = 0; i < array.length; i += 2) {
+            Object key = array[i];
+            if (key == null) {
+                if (!forEachWhile(((Node) array[i + 1]).array, p)) {
+                    return false;
+                }
+            }
+            else if (!p.test(new SimpleImmutableEntry<>(key == NULL_KEY ? null : (K) key, (V) array[i + 1]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object find(Object key) {
+        if (root == null) {
+            return NOT_FOUND;
+        }
+        Object k = maskNull(key);
+        return root.find(0, hash(k), k);
+    }
+
+    private static Node rootOrEmpty(Node root) {
+        return root == null ? BitmapNode.EMPTY : root;
+    }
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static Object[] removePair(Object[] array, int i) {
+        Object[] newArray = new Object[array.length - 2];
+        System.arraycopy(array, 0, newArray, 0, 2 * i);
+        System.arraycopy(array, 2 * i + 2, newArray, 2 * i, newArray.length - 2 * i);
+        return newArray;
+    }
+
+    private abstract static class Node {
+        final Object owner;
+        Object[] array;
+
+        Node(Object owner, Object[] array) {
+            this.owner = owner;
+            this.array = array;
+        }
+
+        boolean editableBy(Object owner) {
+            return owner != null && owner == this.owner;
+        }
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node put(Object owner, int shift, int hash, Object key, Object value, boolean[] added);
+
+        abstract Node remove(Object owner, int shift, int hash, Object key, boolean[] removed);
+    }
+
+    /**
+     * Array holds key/value pairs; a null key means the value slot holds a child node.
+     */
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        int bitmap;
+
+        BitmapNode(Object owner, int bitmap, Object[] array) {
+            super(owner, array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int i = index(bit);
+            Object k = array[2 * i];
+            Object v = array[2 * i + 1];
+            if (k == null) {
+                return ((Node) v).find(shift + BITS, hash, key);
+            }
+            return k == key || key.equals(k) ? v : NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object owner, int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bitpos(hash, shift);
+            int i = index(bit);
+            if ((bitmap & bit) != 0) {
+                Object k = array[2 * i];
+                Object v = array[2 * i + 1];
+                if (k == null) {
+                    Node child = (Node) v;
+                    Node n = child.put(owner, shift + BITS, hash, key, value, added);
+                    return n == child ? this : set(owner, 2 * i + 1, n);
+                }
+                if (k == key || key.equals(k)) {
+                    return v == value ? this : set(owner, 2 * i + 1, value);
+                }
+                added[0] = true;
+                Node sub = createNode(owner, shift + BITS, k, v, hash, key, value);
+                BitmapNode editable = editable(owner);
+                editable.array[2 * i] = null;
+                editable.array[2 * i + 1] = sub;
+                return editable;
+            }
+            added[0] = true;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, 2 * i);
+            newArray[2 * i] = key;
+            newArray[2 * i + 1] = value;
+            System.arraycopy(array, 2 * i, newArray, 2 * i + 2, array.length - 2 * i);
+            if (editableBy(owner)) {
+                array = newArray;
+                bitmap |= bit;
+                return this;
+            }
+            return new BitmapNode(owner, bitmap | bit, newArray);
+        }
+
+        @Override
+        Node remove(Object owner, int shift, int hash, Object key, boolean[] removed) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = index(bit);
+            Object k = array[2 * i];
+            Object v = array[2 * i + 1];
+            if (k == null) {
+                Node child = (Node) v;
+                Node n = child.remove(owner, shift + BITS, hash, key, removed);
+                if (!removed[0]) {
+                    return this;
+                }
+                if (n == null) {
+                    return removeEntry(owner, bit, i);
+                }
+                if (n.array.length == 2 && n.array[0] != null) {
+                    // Pull a lone remaining entry up so the trie stays as shallow as it can be.
+                    BitmapNode editable = editable(owner);
+                    editable.array[2 * i] = n.array[0];
+                    editable.array[2 * i + 1] = n.array[1];
+                    return editable;
+                }
+                return n == child ? this : set(owner, 2 * i + 1, n);
+            }
+            if (k == key || key.equals(k)) {
+                removed[0] = true;
+                return removeEntry(owner, bit, i);
+            }
+            return this;
+        }
+
+        private Node removeEntry(Object owner, int bit, int i) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = removePair(array, i);
+            if (editableBy(owner)) {
+                array = newArray;
+                bitmap ^= bit;
+                return this;
+            }
+            return new BitmapNode(owner, bitmap ^ bit, newArray);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private BitmapNode set(Object owner, int i, Object value) {
+            BitmapNode editable = editable(owner);
+            editable.array[i] = value;
+            return editable;
+        }
+
+        private BitmapNode editable(Object owner) {
+            return editableBy(owner) ? this : new BitmapNode(owner, bitmap, array.clone());
+        }
+
+        private static Node createNode(Object owner, int shift, Object k1, Object v1, int h2, Object k2, Object v2) {
+            int h1 = hash(k1);
+            if (h1 == h2) {
+                return new CollisionNode(owner, h1, new Object[]{k1, v1, k2, v2});
+            }
+            boolean[] added = new boolean[1];
+            return EMPTY.put(owner, shift, h1, k1, v1, added).put(owner, shift, h2, k2, v2, added);
+        }
+    }
+
+    /**
+     * Keys whose full 32-bit hashes are equal.
+     */
+    private static final class CollisionNode extends Node {
+        final int hash;
+
+        CollisionNode(Object owner, int hash, Object[] array) {
+            super(owner, array);
+            this.hash = hash;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) {
+                return NOT_FOUND;
+            }
+            int i = indexOf(key);
+            return i < 0 ? NOT_FOUND : array[i + 1];
+        }
+
+        @Override
+        Node put(Object owner, int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                BitmapNode parent = new BitmapNode(owner, bitpos(this.hash, shift), new Object[]{null, this});
+                return parent.put(owner, shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                CollisionNode editable = editableBy(owner) ? this : new CollisionNode(owner, hash, array.clone());
+                editable.array[i + 1] = value;
+                return editable;
+            }
+            added[0] = true;
+            Object[] newArray = Arrays.copyOf(array, array.length + 2);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            if (editableBy(owner)) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(owner, hash, newArray);
+        }
+
+        @Override
+        Node remove(Object owner, int shift, int hash, Object key, boolean[] removed) {
+            if (hash != this.hash) {
+                return this;
+            }
+            int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            removed[0] = true;
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = removePair(array, i / 2);
+            if (editableBy(owner)) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(owner, hash, newArray);
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == key || key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+        private final Object[][] arrays = new Object[10][];
+        private final int[] positions = new int[10];
+        private int depth = -1;
+        private Object nextKey;
+        private Object nextValue;
+        private boolean ready;
+
+        EntryIterator(Node root) {
+            if (root != null) {
+                depth = 0;
+                arrays[0] = root.array;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (ready) {
+                return true;
+            }
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int p = positions[depth];
+                if (p >= array.length) {
+                    depth--;
+                    continue;
+                }
+                positions[depth] = p + 2;
+                if (array[p] == null) {
+                    depth++;
+                    arrays[depth] = ((Node) array[p + 1]).array;
+                    positions[depth] = 0;
+                    continue;
+                }
+                nextKey = array[p];
+                nextValue = array[p + 1];
+                ready = true;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            K key = nextKey == NULL_KEY ? null : (K) nextKey;
+            return new SimpleImmutableEntry<>(key, (V) nextValue);
+        }
+    }
+
+    static final class Builder<K, V> {
+        private Node root;
+        private int size;
+        private Object owner = new Object();
+
+        Builder(PersistentHashMap<K, V> base) {
+            this.root = base.root;
+            this.size = base.size;
+        }
+
+        Builder<K, V> put(K key, V value) {
+            Object k = maskNull(key);
+            boolean[] added = new boolean[1];
+            root = rootOrEmpty(root).put(owner, 0, hash(k), k, value, added);
+            if (added[0]) {
+                size++;
+            }
+            return this;
+        }
+
+        Builder<K, V> remove(Object key) {
+            if (root != null) {
+                Object k = maskNull(key);
+                boolean[] removed = new boolean[1];
+                root = root.remove(owner, 0, hash(k), k, removed);
+                if (removed[0]) {
+                    size--;
+                }
+            }
+            return this;
+        }
+
+        PersistentHashMap<K, V> build() {
+            // The built map now shares our nodes, so further edits must copy them.
+            owner = new Object();
+            return size == 0 ? PersistentHashMap.<K, V>empty() : new PersistentHashMap<>(root, size);
+        }
+    }
+}
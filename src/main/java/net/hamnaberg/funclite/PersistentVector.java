@@ -0,0 +1,364 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Immutable 32-way trie used as backing for {@link FunctionalList}.
+ *
+ * Elements live in the index window {@code [origin, origin + size)} of the trie.
+ * Updates copy only the path from the root to the touched leaf, and
+ * {@code drop}/{@code take} just move the window, so every derived vector shares
+ * structure with the one it came from. Once a window shrinks to half of its parent or
+ * less, the nodes outside it are cut off and the trie is made as shallow as the window
+ * allows, so a small slice never keeps more than about twice its own size reachable.
+ *
+ * Indices are bounded by {@code 2^30}; a vector that runs out of room on one side is
+ * rebuilt with room on that side, so only a vector of {@code 2^30} elements is full.
+ */
+final class PersistentVector<A> extends AbstractList<A> implements RandomAccess, InternalIterable<A> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final int MAX_SHIFT = 25;
+    private static final long MAX_CAPACITY = 1L << (MAX_SHIFT + BITS);
+
+    private static final PersistentVector<Object> EMPTY = new PersistentVector<>(new Object[WIDTH], 0, 0, 0);
+
+    private final Object[] root;
+    private final int shift;
+    private final int origin;
+    private final int size;
+
+    private PersistentVector(Object[] root, int shift, int origin, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.origin = origin;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <A> PersistentVector<A> empty() {
+        return (PersistentVector<A>) EMPTY;
+    }
+
+    static <A> PersistentVector<A> copyOf(Iterable<A> iterable) {
+        if (iterable instanceof PersistentVector) {
+            return (PersistentVector<A>) iterable;
+        }
+        Builder<A> builder = new Builder<>();
+        for (A a : iterable) {
+            builder.add(a);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public A get(int index) {
+        checkIndex(index);
+        int idx = origin + index;
+        return (A) leafFor(idx)[idx & MASK];
+    }
+
+    PersistentVector<A> append(A value) {
+        if (origin + (long) size >= capacity()) {
+            if (shift >= MAX_SHIFT) {
+                if (origin == 0) {
+                    throw new IllegalStateException("Vector capacity exceeded");
+                }
+                return compact().append(value);
+            }
+            Object[] newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            return new PersistentVector<A>(newRoot, shift + BITS, origin, size).append(value);
+        }
+        int idx = origin + size;
+        return new PersistentVector<>(doSet(root, shift, idx, value), shift, origin, size + 1);
+    }
+
+    PersistentVector<A> prepend(A value) {
+        if (origin == 0) {
+            if (shift >= MAX_SHIFT) {
+                // No level left to grow into, so rebuild with as much room on the left as there are elements.
+                int room = (int) Math.min(size, MAX_CAPACITY - size);
+                if (room <= 0) {
+                    throw new IllegalStateException("Vector capacity exceeded");
+                }
+                return rebase(room).prepend(value);
+            }
+            // Park the current root in slot 1 so a whole subtree of room opens up to the left.
+            Object[] newRoot = new Object[WIDTH];
+            newRoot[1] = root;
+            return new PersistentVector<A>(newRoot, shift + BITS, origin + (int) capacity(), size).prepend(value);
+        }
+        int idx = origin - 1;
+        return new PersistentVector<>(doSet(root, shift, idx, value), shift, idx, size + 1);
+    }
+
+    PersistentVector<A> updated(int index, A value) {
+        checkIndex(index);
+        return new PersistentVector<>(doSet(root, shift, origin + index, value), shift, origin, size);
+    }
+
+    PersistentVector<A> concat(Iterable<A> other) {
+        if (other instanceof PersistentVector && ((PersistentVector<A>) other).size > size) {
+            PersistentVector<A> result = (PersistentVector<A>) other;
+            for (int i = size - 1; i >= 0; i--) {
+                result = result.prepend(get(i));
+            }
+            return result;
+        }
+        PersistentVector<A> result = this;
+        for (A a : other) {
+            result = result.append(a);
+        }
+        return result;
+    }
+
+    PersistentVector<A> drop(int n) {
+        if (n <= 0) {
+            return this;
+        }
+        if (n >= size) {
+            return empty();
+        }
+        return window(origin + n, size - n);
+    }
+
+    PersistentVector<A> take(int n) {
+        if (n >= size) {
+            return this;
+        }
+        if (n <= 0) {
+            return empty();
+        }
+        return window(origin, n);
+    }
+
+    @Override
+    public Iterator<A> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean forEachWhile(Predicate<A> p) {
+        int i = 0;
+        while (i < size) {
+            int idx = origin + i;
+            Object[] leaf = leafFor(idx);
+            int from = idx & MASK;
+            int to = from + Math.min(WIDTH - from, size - i);
+            for (int j = from; j < to; j++) {
+                if (!p.test((A) leaf[j])) {
+                    return false;
+                }
+            }
+            i += to - from;
+        }
+        return true;
+    }
+
+    private long capacity() {
+        return 1L << (shift + BITS);
+    }
+
+    private Object[] leafFor(int idx) {
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(idx >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %s, Size: %s", index, size));
+        }
+    }
+
+    /**
+     * Narrows the window to {@code [from, from + count)}. Small windows are trimmed and the
+     * root is lowered until the window spans more than one of its slots.
+     */
+    private PersistentVector<A> window(int from, int count) {
+        if (count > size / 2) {
+            return new PersistentVector<>(root, shift, from, count);
+        }
+        int last = from + count - 1;
+        Object[] node = trimRight(trimLeft(root, shift, from), shift, last);
+        int level = shift;
+        while (level > 0 && ((from >>> level) & MASK) == ((last >>> level) & MASK)) {
+            int slot = (from >>> level) & MASK;
+            node = (Object[]) node[slot];
+            from -= slot << level;
+            last -= slot << level;
+            level -= BITS;
+        }
+        return new PersistentVector<>(node, level, from, count);
+    }
+
+    private PersistentVector<A> compact() {
+        return rebase(0);
+    }
+
+    /**
+     * Copies the elements into a fresh trie, starting at index {@code room}.
+     */
+    private PersistentVector<A> rebase(int room) {
+        Builder<A> builder = new Builder<>(room);
+        forEachWhile(a -> {
+            builder.add(a);
+            return true;
+        });
+        return builder.build();
+    }
+
+    private static Object[] trimLeft(Object[] node, int level, int first) {
+        Object[] copy = node.clone();
+        int slot = (first >>> level) & MASK;
+        Arrays.fill(copy, 0, slot, null);
+        if (level > 0) {
+            copy[slot] = trimLeft((Object[]) copy[slot], level - BITS, first);
+        }
+        return copy;
+    }
+
+    private static Object[] trimRight(Object[] node, int level, int last) {
+        Object[] copy = node.clone();
+        int slot = (last >>> level) & MASK;
+        Arrays.fill(copy, slot + 1, WIDTH, null);
+        if (level > 0) {
+            copy[slot] = trimRight((Object[]) copy[slot], level - BITS, last);
+        }
+        return copy;
+    }
+
+    private static Object[] doSet(Object[] node, int level, int idx, Object value) {
+        Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+        int slot = (idx >>> level) & MASK;
+        if (level == 0) {
+            copy[slot] = value;
+        }
+        else {
+            copy[slot] = doSet((Object[]) copy[slot], level - BITS, idx, value);
+        }
+        return copy;
+    }
+
+    private final class Itr implements Iterator<A> {
+        private int index = 0;
+        private Object[] leaf;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public A next() {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+            int idx = origin + index;
+            if (leaf == null || (idx & MASK) == 0) {
+                leaf = leafFor(idx);
+            }
+            index++;
+            return (A) leaf[idx & MASK];
+        }
+    }
+
+    /**
+     * Builds a vector in place. Nodes are only visible to the builder until {@link #build()},
+     * so they can be filled without path copying.
+     */
+    static final class Builder<A> {
+        private final int origin;
+        private Object[] root = new Object[WIDTH];
+        private int shift = 0;
+        private int size = 0;
+        private Object[] leaf;
+
+        Builder() {
+            this(0);
+        }
+
+        /**
+         * @param origin the trie index of the first element, leaving room for prepends
+         */
+        Builder(int origin) {
+            this.origin = origin;
+        }
+
+        Builder<A> add(A value) {
+            int idx = origin + size;
+            if (leaf == null || (idx & MASK) == 0) {
+                while (idx >= 1L << (shift + BITS)) {
+                    if (shift >= MAX_SHIFT) {
+                        throw new IllegalStateException("Vector capacity exceeded");
+                    }
+                    Object[] newRoot = new Object[WIDTH];
+                    newRoot[0] = root;
+                    root = newRoot;
+                    shift += BITS;
+                }
+                leaf = newLeaf(idx);
+            }
+            leaf[idx & MASK] = value;
+            size++;
+            return this;
+        }
+
+        PersistentVector<A> build() {
+            if (size == 0) {
+                return empty();
+            }
+            PersistentVector<A> vector = new PersistentVector<>(root, shift, origin, size);
+            root = new Object[WIDTH];
+            shift = 0;
+            size = 0;
+            leaf = null;
+            return vector;
+        }
+
+        private Object[] newLeaf(int idx) {
+            Object[] node = root;
+            for (int level = shift; level > 0; level -= BITS) {
+                int slot = (idx >>> level) & MASK;
+                if (node[slot] == null) {
+                    node[slot] = new Object[WIDTH];
+                }
+                node = (Object[]) node[slot];
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes values as fixed-width binary records, used by the off-heap and memory-mapped
+ * {@link FunctionalList} variants. Implementations must use absolute get/put methods and
+ * never touch the buffer's position or limit.
+ */
+public interface RecordCodec<A> {
+    /** @return the number of bytes every record occupies */
+    int width();
+
+    void encode(A value, ByteBuffer buffer, int offset);
+
+    A decode(ByteBuffer buffer, int offset);
+}
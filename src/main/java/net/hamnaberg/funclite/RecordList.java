@@ -0,0 +1,201 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Read-only list of fixed-width records stored in one or more {@link ByteBuffer}s, either
+ * direct buffers or memory-mapped file regions. Nothing is decoded up front: every {@code get}
+ * decodes the record at that index, and {@code subList} is a window over the same buffers.
+ *
+ * A single buffer cannot hold more than {@code Integer.MAX_VALUE} bytes, so larger data sets are
+ * split into segments of {@code perSegment} whole records.
+ *
+ * File layout: a 16 byte header (magic, record width, record count) followed by the records.
+ */
+final class RecordList<A> extends AbstractList<A> implements RandomAccess, InternalIterable<A> {
+    private static final int MAGIC = 0x46524543;
+    private static final int HEADER = 16;
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    private final ByteBuffer[] segments;
+    private final int perSegment;
+    private final RecordCodec<A> codec;
+    private final int offset;
+    private final int size;
+
+    private RecordList(ByteBuffer[] segments, int perSegment, RecordCodec<A> codec, int offset, int size) {
+        this.segments = segments;
+        this.perSegment = perSegment;
+        this.codec = codec;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    static <A> RecordList<A> wrap(ByteBuffer buffer, RecordCodec<A> codec) {
+        int width = width(codec);
+        ByteBuffer view = buffer.slice().asReadOnlyBuffer().order(buffer.order());
+        return new RecordList<>(new ByteBuffer[]{view}, perSegment(width), codec, 0, view.capacity() / width);
+    }
+
+    static <A> RecordList<A> offHeap(Iterable<A> iterable, RecordCodec<A> codec) {
+        return offHeap(iterable, codec, perSegment(width(codec)));
+    }
+
+    static <A> RecordList<A> offHeap(Iterable<A> iterable, RecordCodec<A> codec, int perSegment) {
+        int width = width(codec);
+        Collection<A> values = iterable instanceof Collection ? (Collection<A>) iterable : CollectionOps.copyToList(iterable);
+        int size = values.size();
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(size, perSegment)];
+        int i = 0;
+        for (A value : values) {
+            int segment = i / perSegment;
+            if (segments[segment] == null) {
+                segments[segment] = ByteBuffer.allocateDirect(Math.min(perSegment, size - i) * width);
+            }
+            codec.encode(value, segments[segment], (i % perSegment) * width);
+            i++;
+        }
+        for (int s = 0; s < segments.length; s++) {
+            segments[s] = segments[s].asReadOnlyBuffer();
+        }
+        return new RecordList<>(segments, perSegment, codec, 0, size);
+    }
+
+    static <A> RecordList<A> mapped(Path path, RecordCodec<A> codec) throws IOException {
+        int width = width(codec);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException(String.format("%s is not a record file", path));
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException(String.format("%s is not a record file", path));
+            }
+            int fileWidth = header.getInt();
+            Preconditions.checkArgument(fileWidth == width, "%s has records of width %s, codec expects %s", path, fileWidth, width);
+            long count = header.getLong();
+            Preconditions.checkArgument(count <= Integer.MAX_VALUE, "%s has too many records: %s", path, count);
+            int size = (int) count;
+            int perSegment = perSegment(width);
+            ByteBuffer[] segments = new ByteBuffer[segmentCount(size, perSegment)];
+            for (int s = 0; s < segments.length; s++) {
+                long first = (long) s * perSegment;
+                long records = Math.min(perSegment, count - first);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + first * width, records * width);
+            }
+            return new RecordList<>(segments, perSegment, codec, 0, size);
+        }
+    }
+
+    static <A> long write(Path path, Iterable<A> iterable, RecordCodec<A> codec) throws IOException {
+        int width = width(codec);
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(width, WRITE_BUFFER / width * width));
+            for (A value : iterable) {
+                if (buffer.remaining() < width) {
+                    flush(channel, buffer);
+                }
+                codec.encode(value, buffer, buffer.position());
+                buffer.position(buffer.position() + width);
+                count++;
+            }
+            flush(channel, buffer);
+            ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(width).putLong(count);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public A get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %s, Size: %s", index, size));
+        }
+        int idx = offset + index;
+        return codec.decode(segments[idx / perSegment], (idx % perSegment) * codec.width());
+    }
+
+    @Override
+    public RecordList<A> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException(String.format("From: %s, To: %s, Size: %s", fromIndex, toIndex, size));
+        }
+        return new RecordList<>(segments, perSegment, codec, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    @Override
+    public boolean forEachWhile(Predicate<A> p) {
+        int width = codec.width();
+        int i = offset;
+        int end = offset + size;
+        while (i < end) {
+            ByteBuffer segment = segments[i / perSegment];
+            int segmentEnd = (int) Math.min(end, ((long) i / perSegment + 1) * perSegment);
+            for (int pos = (i % perSegment) * width; i < segmentEnd; i++, pos += width) {
+                if (!p.test(codec.decode(segment, pos))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static int width(RecordCodec<?> codec) {
+        int width = codec.width();
+        Preconditions.checkArgument(width > 0, "Record width must be positive, was %s", width);
+        return width;
+    }
+
+    private static int perSegment(int width) {
+        return Integer.MAX_VALUE / width;
+    }
+
+    private static int segmentCount(int size, int perSegment) {
+        return (int) (((long) size + perSegment - 1) / perSegment);
+    }
+}
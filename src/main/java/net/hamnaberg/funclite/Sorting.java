@@ -0,0 +1,274 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sorting and selection behind {@link FunctionalList#sorted(Comparator)} and friends.
+ * Every sort here is stable.
+ */
+final class Sorting {
+    private static final int INITIAL_HEAP_CAPACITY = 16;
+
+    private Sorting() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <A> List<A> sorted(List<A> list, Comparator<? super A> c, boolean parallel) {
+        A[] values = (A[]) list.toArray();
+        if (parallel) {
+            Arrays.parallelSort(values, c);
+        }
+        else {
+            Arrays.sort(values, c);
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Decorate-sort-undecorate: each key is computed once, then the pairs are sorted on the key alone.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <A, K> List<A> sortBy(List<A> list, Function<A, K> key, Comparator<? super K> c, boolean parallel) {
+        Keyed<A, K>[] keyed = new Keyed[list.size()];
+        int i = 0;
+        for (A a : list) {
+            keyed[i++] = new Keyed<A, K>(key.apply(a), a);
+        }
+        Comparator<Keyed<A, K>> byKey = (x, y) -> c.compare(x.key, y.key);
+        if (parallel) {
+            Arrays.parallelSort(keyed, byKey);
+        }
+        else {
+            Arrays.sort(keyed, byKey);
+        }
+        Object[] values = new Object[keyed.length];
+        for (i = 0; i < keyed.length; i++) {
+            values[i] = keyed[i].value;
+        }
+        return (List<A>) Arrays.asList(values);
+    }
+
+    /**
+     * Packs each key into the high half of a long and the element's index into the low half, so a
+     * primitive sort orders by key and keeps input order for equal keys.
+     */
+    @SuppressWarnings("unchecked")
+    static <A> List<A> sortByInt(List<A> list, ToIntFunction<A> key) {
+        Object[] source = list.toArray();
+        long[] packed = new long[source.length];
+        for (int i = 0; i < source.length; i++) {
+            packed[i] = ((long) key.applyAsInt((A) source[i]) << 32) | i;
+        }
+        Arrays.sort(packed);
+        Object[] values = new Object[source.length];
+        for (int i = 0; i < packed.length; i++) {
+            values[i] = source[(int) packed[i]];
+        }
+        return (List<A>) Arrays.asList(values);
+    }
+
+    /**
+     * Computes the keys into a {@code long[]} and merge sorts element indices by key.
+     */
+    @SuppressWarnings("unchecked")
+    static <A> List<A> sortByLong(List<A> list, ToLongFunction<A> key) {
+        Object[] source = list.toArray();
+        long[] keys = new long[source.length];
+        int[] order = new int[source.length];
+        for (int i = 0; i < source.length; i++) {
+            keys[i] = key.applyAsLong((A) source[i]);
+            order[i] = i;
+        }
+        mergeSort(order, order.clone(), 0, order.length, keys);
+        Object[] values = new Object[source.length];
+        for (int i = 0; i < order.length; i++) {
+            values[i] = source[order[i]];
+        }
+        return (List<A>) Arrays.asList(values);
+    }
+
+    /**
+     * Keeps the {@code k} best elements in a bounded min-heap (the worst kept element on top), so
+     * selection is O(n log k). Ties are broken by input order. The heap is sized to the input when
+     * it is a {@link Collection}, and otherwise grows as elements arrive, so a large {@code k} costs
+     * no more memory than the input itself.
+     *
+     * @return the {@code k} greatest elements under {@code c}, greatest first
+     */
+    @SuppressWarnings("unchecked")
+    static <A> List<A> topK(Iterable<A> iterable, int k, Comparator<? super A> c) {
+        Preconditions.checkArgument(k >= 0, "k must not be negative, was %s", k);
+        if (k == 0) {
+            return Collections.emptyList();
+        }
+        int capacity = Math.min(k, INITIAL_HEAP_CAPACITY);
+        if (iterable instanceof Collection) {
+            k = Math.min(k, ((Collection<?>) iterable).size());
+            capacity = k;
+        }
+        BoundedHeap<A> heap = new BoundedHeap<>(k, capacity, c);
+        int index = 0;
+        for (A a : iterable) {
+            heap.offer(a, index++);
+        }
+        return (List<A>) Arrays.asList(heap.drainBestFirst());
+    }
+
+    private static void mergeSort(int[] dst, int[] src, int from, int to, long[] keys) {
+        if (to - from < 8) {
+            for (int i = from + 1; i < to; i++) {
+                int v = dst[i];
+                int j = i - 1;
+                while (j >= from && keys[dst[j]] > keys[v]) {
+                    dst[j + 1] = dst[j];
+                    j--;
+                }
+                dst[j + 1] = v;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(src, dst, from, mid, keys);
+        mergeSort(src, dst, mid, to, keys);
+        for (int i = from, l = from, r = mid; i < to; i++) {
+            if (r >= to || (l < mid && keys[src[l]] <= keys[src[r]])) {
+                dst[i] = src[l++];
+            }
+            else {
+                dst[i] = src[r++];
+            }
+        }
+    }
+
+    private static final class Keyed<A, K> {
+        final K key;
+        final A value;
+
+        Keyed(K key, A value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class BoundedHeap<A> {
+        private final int k;
+        private final Comparator<? super A> c;
+        private Object[] values;
+        private int[] indices;
+        private int size;
+
+        BoundedHeap(int k, int capacity, Comparator<? super A> c) {
+            this.k = k;
+            this.values = new Object[capacity];
+            this.indices = new int[capacity];
+            this.c = c;
+        }
+
+        void offer(A a, int index) {
+            if (size < k) {
+                if (size == values.length) {
+                    grow();
+                }
+                values[size] = a;
+                indices[size] = index;
+                siftUp(size++);
+            }
+            else if (worse(0, a, index)) {
+                values[0] = a;
+                indices[0] = index;
+                siftDown(0);
+            }
+        }
+
+        private void grow() {
+            int capacity = (int) Math.min(k, Math.max(INITIAL_HEAP_CAPACITY, 2L * values.length));
+            values = Arrays.copyOf(values, capacity);
+            indices = Arrays.copyOf(indices, capacity);
+        }
+
+        Object[] drainBestFirst() {
+            Object[] result = new Object[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = values[0];
+                size--;
+                values[0] = values[size];
+                indices[0] = indices[size];
+                values[size] = null;
+                siftDown(0);
+            }
+            return result;
+        }
+
+        /** true if the element at slot i ranks below (a, index) */
+        @SuppressWarnings("unchecked")
+        private boolean worse(int i, A a, int index) {
+            int cmp = c.compare((A) values[i], a);
+            return cmp < 0 || (cmp == 0 && indices[i] > index);
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean worse(int i, int j) {
+            return worse(i, (A) values[j], indices[j]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(i, parent)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && worse(child + 1, child)) {
+                    child++;
+                }
+                if (!worse(child, i)) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            Object v = values[i];
+            values[i] = values[j];
+            values[j] = v;
+            int idx = indices[i];
+            indices[i] = indices[j];
+            indices[j] = idx;
+        }
+    }
+}
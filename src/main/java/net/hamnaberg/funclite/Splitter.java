@@ -0,0 +1,226 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hamnaberg.funclite;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits on a literal separator, never a regex. Pieces are produced lazily, one per
+ * {@code next()}, as views over the input that are only copied when {@code toString()} is called.
+ */
+public final class Splitter {
+    private final char separatorChar;
+    private final String separator;
+    private final boolean trim;
+    private final boolean omitEmpty;
+    private final int limit;
+
+    private Splitter(char separatorChar, String separator, boolean trim, boolean omitEmpty, int limit) {
+        this.separatorChar = separatorChar;
+        this.separator = separator;
+        this.trim = trim;
+        this.omitEmpty = omitEmpty;
+        this.limit = limit;
+    }
+
+    public static Splitter on(char separator) {
+        return new Splitter(separator, null, false, false, Integer.MAX_VALUE);
+    }
+
+    public static Splitter on(String separator) {
+        Preconditions.checkArgument(separator != null && !separator.isEmpty(), "separator must not be empty");
+        if (separator.length() == 1) {
+            return on(separator.charAt(0));
+        }
+        return new Splitter('\0', separator, false, false, Integer.MAX_VALUE);
+    }
+
+    public Splitter trimResults() {
+        return new Splitter(separatorChar, separator, true, omitEmpty, limit);
+    }
+
+    public Splitter omitEmptyStrings() {
+        return new Splitter(separatorChar, separator, trim, true, limit);
+    }
+
+    /**
+     * At most {@code limit} pieces are produced; the last one holds the unsplit remainder.
+     */
+    public Splitter limit(int limit) {
+        Preconditions.checkArgument(limit > 0, "limit must be positive, was %s", limit);
+        return new Splitter(separatorChar, separator, trim, omitEmpty, limit);
+    }
+
+    public Iterable<CharSequence> split(CharSequence input) {
+        return () -> new SplitIterator(input);
+    }
+
+    public LazyList<CharSequence> view(CharSequence input) {
+        return LazyList.from(split(input));
+    }
+
+    public FunctionalList<String> splitToList(CharSequence input) {
+        return view(input).map(CharSequence::toString).toList();
+    }
+
+    private int indexOf(CharSequence input, int from) {
+        if (separator == null) {
+            if (input instanceof String) {
+                return ((String) input).indexOf(separatorChar, from);
+            }
+            for (int i = from, length = input.length(); i < length; i++) {
+                if (input.charAt(i) == separatorChar) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        if (input instanceof String) {
+            return ((String) input).indexOf(separator, from);
+        }
+        int last = input.length() - separator.length();
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < separator.length(); j++) {
+                if (input.charAt(i + j) != separator.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private final class SplitIterator implements Iterator<CharSequence> {
+        private final CharSequence input;
+        private int position = 0;
+        private int count = 0;
+        private CharSequence next;
+
+        SplitIterator(CharSequence input) {
+            this.input = input;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = computeNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public CharSequence next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            CharSequence result = next;
+            next = null;
+            return result;
+        }
+
+        private CharSequence computeNext() {
+            while (position >= 0) {
+                int start = position;
+                int end;
+                int sep = count == limit - 1 ? -1 : indexOf(input, start);
+                if (sep < 0) {
+                    end = input.length();
+                    position = -1;
+                }
+                else {
+                    end = sep;
+                    position = sep + (separator == null ? 1 : separator.length());
+                }
+                if (trim) {
+                    while (start < end && Character.isWhitespace(input.charAt(start))) {
+                        start++;
+                    }
+                    while (end > start && Character.isWhitespace(input.charAt(end - 1))) {
+                        end--;
+                    }
+                }
+                if (omitEmpty && start == end) {
+                    continue;
+                }
+                count++;
+                return new CharSlice(input, start, end);
+            }
+            return null;
+        }
+    }
+
+    private static final class CharSlice implements CharSequence {
+        private final CharSequence source;
+        private final int start;
+        private final int end;
+
+        CharSlice(CharSequence source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return source.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > length() || from > to) {
+                throw new IndexOutOfBoundsException(String.format("%s, %s", from, to));
+            }
+            return new CharSlice(source, start + from, start + to);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CharSlice)) return false;
+
+            CharSlice that = (CharSlice) o;
+            if (length() != that.length()) return false;
+            for (int i = 0; i < length(); i++) {
+                if (charAt(i) != that.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + source.charAt(i);
+            }
+            return h;
+        }
+
+        @Override
+        public String toString() {
+            return source.subSequence(start, end).toString();
+        }
+    }
+}
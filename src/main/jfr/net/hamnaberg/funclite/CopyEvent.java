@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for an operation that copies elements into a new collection.
+ *
+ * Compiled from {@code src/main/jfr} by the {@code jfr} profile and only reached through
+ * {@link JfrCopyRecorder}, which {@link CopyEvents} loads once {@code jdk.jfr} is known to exist. Enable, disable or change the threshold with the usual JFR settings, e.g.
+ * {@code net.hamnaberg.funclite.Copy#threshold=0 ms}.
+ */
+@Name("net.hamnaberg.funclite.Copy")
+@Label("Collection Copy")
+@Category("funclite")
+@Description("A funclite operation copied elements into a new collection")
+@Enabled(true)
+@Threshold("100 us")
+@StackTrace(true)
+final class CopyEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Elements")
+    int elements;
+
+    static Object start() {
+        CopyEvent event = new CopyEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void finish(Object token, String operation, int elements) {
+        CopyEvent event = (CopyEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.elements = elements;
+            event.commit();
+        }
+    }
+}
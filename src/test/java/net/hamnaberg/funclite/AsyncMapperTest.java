@@ -0,0 +1,153 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncMapperTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void keepsOrderAndBoundsConcurrency() {
+        FunctionalList<Integer> input = range(200);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        FunctionalList<Integer> result = input.mapAsync(i -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(1);
+            inFlight.decrementAndGet();
+            return i * 2;
+        }, executor, 3).join();
+        assertEquals(input.map(i -> i * 2), result);
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void callerRunsExecutorDoesNotRecurse() {
+        FunctionalList<Integer> result = range(100000).mapAsync(i -> i + 1, Runnable::run, 4).join();
+        assertEquals(100000, result.size());
+        assertEquals(Integer.valueOf(100000), result.get(99999));
+    }
+
+    @Test
+    public void failFast() {
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            range(1000).mapAsync(i -> {
+                calls.incrementAndGet();
+                if (i == 5) {
+                    throw new IllegalStateException("boom");
+                }
+                return i;
+            }, Runnable::run, 1).join();
+            fail("expected failure");
+        }
+        catch (CompletionException e) {
+            AsyncMapException failure = (AsyncMapException) e.getCause();
+            assertEquals(1, failure.getFailures().size());
+            assertTrue(failure.getCause() instanceof IllegalStateException);
+            assertEquals(6, calls.get());
+        }
+    }
+
+    @Test
+    public void collectErrors() {
+        AsyncSpec spec = AsyncSpec.maxConcurrency(4).errors(AsyncSpec.Errors.COLLECT);
+        try {
+            range(100).parMapIO(i -> {
+                if (i % 10 == 0) {
+                    throw new IllegalArgumentException(String.valueOf(i));
+                }
+                return i;
+            }, spec);
+            fail("expected failure");
+        }
+        catch (AsyncMapException e) {
+            assertEquals(10, e.getFailures().size());
+            assertEquals(Integer.valueOf(0), e.getFailures().firstKey());
+            assertEquals(9, e.getSuppressed().length);
+        }
+    }
+
+    @Test
+    public void timeoutInterruptsSlowElements() {
+        AsyncSpec spec = AsyncSpec.maxConcurrency(2).timeout(50, TimeUnit.MILLISECONDS).errors(AsyncSpec.Errors.COLLECT);
+        AtomicInteger interrupted = new AtomicInteger();
+        try {
+            range(4).mapAsync(i -> {
+                if (i == 1) {
+                    try {
+                        Thread.sleep(10000);
+                    }
+                    catch (InterruptedException e) {
+                        interrupted.incrementAndGet();
+                    }
+                }
+                return i;
+            }, executor, spec).join();
+            fail("expected failure");
+        }
+        catch (CompletionException e) {
+            AsyncMapException failure = (AsyncMapException) e.getCause();
+            assertEquals(Integer.valueOf(1), failure.getFailures().firstKey());
+            assertTrue(failure.getCause() instanceof TimeoutException);
+        }
+        sleep(100);
+        assertEquals(1, interrupted.get());
+    }
+
+    @Test
+    public void parMapIO() {
+        assertEquals(range(50).map(i -> -i), range(50).parMapIO(i -> {
+            sleep(2);
+            return -i;
+        }, 16));
+        assertEquals(FunctionalList.<Integer>empty(), FunctionalList.<Integer>empty().parMapIO(i -> i, 4));
+    }
+
+    private static FunctionalList<Integer> range(int n) {
+        FunctionalList<Integer> list = FunctionalList.empty();
+        for (int i = 0; i < n; i++) {
+            list = list.append(i);
+        }
+        return list;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BloomFilterTest {
+    @Test
+    public void neverForgetsAddedValues() {
+        BloomFilter<Long> filter = BloomFilter.create(10000, 0.01, Long::longValue);
+        for (long i = 0; i < 10000; i++) {
+            filter.put(i);
+        }
+        for (long i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain(i));
+            assertFalse(filter.put(i));
+        }
+    }
+
+    @Test
+    public void falsePositiveRateIsNearConfigured() {
+        BloomFilter<Long> filter = BloomFilter.create(100000, 0.01, Long::longValue);
+        for (long i = 0; i < 100000; i++) {
+            filter.put(i);
+        }
+        int falsePositives = 0;
+        for (long i = 100000; i < 200000; i++) {
+            if (filter.mightContain(i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+        assertEquals(7, filter.hashFunctions());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidRate() {
+        BloomFilter.create(10, 1.0);
+    }
+}
@@ -18,14 +18,29 @@ package net.hamnaberg.funclite;
 
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class CollectionOpsTest {
     @Test
@@ -61,6 +76,56 @@ public class CollectionOpsTest {
         assertThat(CollectionOps.mkString(numbers, "(", ":", ")"), equalTo("(1:2:3:4:5)"));
     }
 
+    @Test
+    public void mkStringVisitsEachElementOnce(){
+        AtomicInteger produced = new AtomicInteger();
+        List<String> lazy = new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                produced.incrementAndGet();
+                return "v" + index;
+            }
+
+            @Override
+            public int size() {
+                return 3;
+            }
+        };
+        assertThat(CollectionOps.mkString(lazy, ","), equalTo("v0,v1,v2"));
+        assertThat(produced.get(), is(3));
+    }
+
+    @Test
+    public void mkStringToAppendable(){
+        List<Integer> numbers = CollectionOps.of(1, 2, null, 4);
+        StringBuilder builder = new StringBuilder("numbers: ");
+        assertThat(CollectionOps.mkStringTo(numbers, builder, "[", ",", "]").toString(), equalTo("numbers: [1,2,4]"));
+    }
+
+    @Test
+    public void mkStringToByteBuffer(){
+        List<String> words = CollectionOps.of("bl\u00e5", "b\u00e6r");
+        ByteBuffer buffer = CollectionOps.mkStringTo(words, ByteBuffer.allocate(64), StandardCharsets.UTF_8, "", " ", "");
+        buffer.flip();
+        assertThat(StandardCharsets.UTF_8.decode(buffer).toString(), equalTo("bl\u00e5 b\u00e6r"));
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void mkStringToTooSmallByteBuffer(){
+        CollectionOps.mkStringTo(CollectionOps.of("abc", "def"), ByteBuffer.allocate(4), StandardCharsets.UTF_8, "", ",", "");
+    }
+
+    @Test
+    public void mkStringToChannel() throws Exception {
+        List<String> words = CollectionOps.newArrayList();
+        for (int i = 0; i < 5000; i++) {
+            words.add("\u00f8" + i);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CollectionOps.mkStringTo(words, Channels.newChannel(out), StandardCharsets.UTF_8, "(", ",", ")");
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), equalTo(CollectionOps.mkString(words, "(", ",", ")")));
+    }
+
     @Test
     public void splitAndJoin(){
         Iterable<String> numbers = CollectionOps.split("1,2,3,4,5,6,7", ",");
@@ -79,6 +144,30 @@ public class CollectionOpsTest {
         assertThat(CollectionOps.foldLeft(numbers, sum(), 0), is(15));
     }
 
+    @Test
+    public void parReduceKeepsOrder() throws Exception {
+        List<String> letters = CollectionOps.newArrayList();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            String letter = String.valueOf((char) ('a' + i % 26));
+            letters.add(letter);
+            expected.append(letter);
+        }
+        Monoid<String> concat = new Monoid<String>() {
+            @Override
+            public String zero() {
+                return "";
+            }
+
+            @Override
+            public String append(String a, String b) {
+                return a + b;
+            }
+        };
+        assertThat(CollectionOps.parReduce(letters, concat), equalTo(expected.toString()));
+        assertThat(CollectionOps.parReduce(CollectionOps.of(1, 2, 3), Monoids.intPlusMonoid()), is(6));
+    }
+
     @Test
     public void size() throws Exception {
         List<Integer> numbers = CollectionOps.of(1, 2, 3, 4, 5);
@@ -97,7 +186,187 @@ public class CollectionOpsTest {
         assertThat(CollectionOps.countBy(numbers, input -> input % 2 == 0 ? "even" : "odd"), is(m));
     }
 
+    @Test
+    public void countByWithNullKeys() throws Exception {
+        List<String> words = CollectionOps.of(null, "a", null, null);
+        Map<String, Integer> m = new HashMap<>();
+        m.put("a", 1);
+        m.put(null, 3);
+
+        assertThat(CollectionOps.countBy(words, Function.identity()), is(m));
+        assertThat(CollectionOps.parCountBy(words, Function.identity()), is(m));
+    }
+
+    @Test
+    public void countByLongWithNullKeys() throws Exception {
+        List<String> words = CollectionOps.of("a", null, "b", "a", null, "a");
+        Map<String, Long> m = new HashMap<>();
+        m.put("a", 3L);
+        m.put("b", 1L);
+        m.put(null, 2L);
+
+        assertThat(CollectionOps.countByLong(words, Function.identity()), is(m));
+    }
+
+    @Test
+    public void parCountBy() throws Exception {
+        List<Integer> numbers = CollectionOps.newArrayList();
+        for (int i = 0; i < 100000; i++) {
+            numbers.add(i);
+        }
+        Map<Integer, Integer> counts = CollectionOps.parCountBy(numbers, input -> input % 1000);
+
+        assertThat(counts.size(), is(1000));
+        assertThat(counts.get(7), is(100));
+        assertThat(counts, is(CollectionOps.countBy(numbers, input -> input % 1000)));
+    }
+
+    @Test
+    public void shortCircuitingOpsOnDifferentShapes() throws Exception {
+        List<Integer> numbers = CollectionOps.of(1, 2, 3);
+        Iterable<Integer> plain = CollectionOps.iterable(numbers.iterator());
+        FunctionalList<Integer> functional = FunctionalList.copyOf(numbers);
+
+        assertThat(CollectionOps.find(functional, input -> input > 1), is(Optional.some(2)));
+        assertThat(CollectionOps.find(new LinkedList<>(numbers), input -> input > 1), is(Optional.some(2)));
+        assertThat(CollectionOps.headOption(plain), is(Optional.some(1)));
+        assertThat(CollectionOps.headOption(Optional.some(4)), is(Optional.some(4)));
+        assertThat(CollectionOps.exists(Optional.some(4), input -> input == 4), is(true));
+        assertThat(CollectionOps.forall(Optional.<Integer>none(), input -> false), is(true));
+        assertThat(CollectionOps.size(CollectionOps.iterable(numbers.iterator())), is(3));
+        assertThat(CollectionOps.newArrayList(functional), is(numbers));
+    }
+
+    @Test
+    public void findSkipsNulls() throws Exception {
+        assertThat(CollectionOps.find(Arrays.asList(null, "a"), "a"::equals), is(Optional.some("a")));
+        assertThat(CollectionOps.find(new LinkedList<>(Arrays.asList(null, "b", "a")), s -> true), is(Optional.some("b")));
+        assertThat(CollectionOps.find(Arrays.asList(null, "", "a"), s -> !s.isEmpty()), is(Optional.some("a")));
+        assertThat(CollectionOps.find(Arrays.<String>asList(null, null), s -> true), is(Optional.<String>none()));
+    }
+
+    @Test
+    public void groupMapReduce() throws Exception {
+        List<String> words = CollectionOps.of("a", "bb", "cc", "ddd", "e");
+        Map<Integer, Integer> m = new HashMap<>();
+        m.put(1, 2);
+        m.put(2, 4);
+        m.put(3, 3);
+
+        assertThat(CollectionOps.groupMapReduce(words, String::length, String::length, Monoids.intPlusMonoid()), is(m));
+    }
+
+    @Test
+    public void groupMapReduceRejectsNullValues() throws Exception {
+        List<String> words = CollectionOps.of("a", "bb", "c");
+        Function<String, Integer> value = w -> w.length() == 2 ? null : 1;
+        try {
+            CollectionOps.groupMapReduce(words, String::length, value, Monoids.intPlusMonoid());
+            fail("expected NullPointerException");
+        } catch (NullPointerException expected) {
+            assertThat(expected.getMessage(), is("groupMapReduce does not accept null values"));
+        }
+        try {
+            CollectionOps.parGroupMapReduce(words, String::length, value, Monoids.intPlusMonoid());
+            fail("expected NullPointerException");
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    @Test
+    public void parGroupMapReduceKeepsOrderWithinGroups() throws Exception {
+        List<Integer> numbers = CollectionOps.newArrayList();
+        for (int i = 0; i < 50000; i++) {
+            numbers.add(i);
+        }
+        Map<Integer, List<Integer>> parallel = CollectionOps.parGroupMapReduce(numbers, i -> i % 3, CollectionOps::of, Monoids.<Integer>listMonoid());
+
+        assertThat(parallel, is(CollectionOps.groupBy(numbers, i -> i % 3)));
+    }
+
+    @Test
+    public void parGroupBy() throws Exception {
+        List<Integer> numbers = CollectionOps.of(1, 2, 3, 4, 5, 6, 7);
+        Map<Boolean, List<Integer>> groups = CollectionOps.parGroupBy(numbers, i -> i % 2 == 0);
+
+        assertThat(CollectionOps.setOf(groups.get(true)), is(CollectionOps.setOf(2, 4, 6)));
+        assertThat(groups.get(false).size(), is(4));
+    }
+
     private Semigroup<Integer> sum() {
         return (a, b) -> a + b;
     }
+
+    @Test
+    public void orderedSetAlgebra() {
+        Set<Integer> left = CollectionOps.setOf(5, 1, 4, 2);
+        Set<Integer> right = CollectionOps.setOf(4, 7, 5, 6);
+        assertThat(new ArrayList<Integer>(CollectionOps.union(left, right)), equalTo(Arrays.asList(5, 1, 4, 2, 7, 6)));
+        assertThat(new ArrayList<Integer>(CollectionOps.intersection(left, right)), equalTo(Arrays.asList(5, 4)));
+        assertThat(new ArrayList<Integer>(CollectionOps.difference(left, right)), equalTo(Arrays.asList(1, 2)));
+        assertThat(new ArrayList<Integer>(CollectionOps.difference(left, CollectionOps.setOf(4))), equalTo(Arrays.asList(5, 1, 2)));
+        assertThat(new ArrayList<Integer>(CollectionOps.symmetricDifference(left, right)), equalTo(Arrays.asList(1, 2, 7, 6)));
+    }
+
+    @Test
+    public void unorderedAndParallelSetAlgebraAgree() {
+        Set<Integer> left = new HashSet<Integer>();
+        Set<Integer> right = new HashSet<Integer>();
+        for (int i = 0; i < 10000; i++) {
+            left.add(i * 2);
+            right.add(i * 3);
+        }
+        Set<Integer> intersection = CollectionOps.intersection(left, right);
+        Set<Integer> difference = CollectionOps.difference(left, right);
+        Set<Integer> symmetric = CollectionOps.symmetricDifference(left, right);
+
+        assertThat(intersection.size(), is(3334));
+        assertThat(CollectionOps.intersection(left, right, false), equalTo(intersection));
+        assertThat(CollectionOps.intersection(right, left, false), equalTo(intersection));
+        assertThat(CollectionOps.parIntersection(left, right), equalTo(intersection));
+        assertThat(CollectionOps.difference(left, right, false), equalTo(difference));
+        assertThat(CollectionOps.parDifference(left, right), equalTo(difference));
+        assertThat(CollectionOps.symmetricDifference(right, left, false), equalTo(symmetric));
+        assertThat(CollectionOps.parSymmetricDifference(left, right), equalTo(symmetric));
+        assertThat(CollectionOps.union(left, right, false).size(), is(20000 - 3334));
+    }
+
+    @Test
+    public void orderedAlgebraOnIntSetsKeepsLinkedHashSetOrder() {
+        IntSet left = IntSet.of(200, 1, 64);
+        IntSet right = IntSet.of(130, 3, 64);
+        Set<Integer> union = CollectionOps.union(right, left);
+        assertThat(union, instanceOf(LinkedHashSet.class));
+        assertThat(new ArrayList<Integer>(union), equalTo(Arrays.asList(3, 64, 130, 1, 200)));
+        Set<Integer> symmetric = CollectionOps.symmetricDifference(right, left);
+        assertThat(symmetric, instanceOf(LinkedHashSet.class));
+        assertThat(new ArrayList<Integer>(symmetric), equalTo(Arrays.asList(3, 130, 1, 200)));
+        assertThat(CollectionOps.intersection(left, right), instanceOf(LinkedHashSet.class));
+        assertThat(CollectionOps.difference(left, right), instanceOf(LinkedHashSet.class));
+    }
+
+    @Test
+    public void intSetFastPath() {
+        IntSet left = IntSet.of(1, 3, 64, 65, 200);
+        IntSet right = IntSet.of(3, 65, 130);
+        assertThat(CollectionOps.union(left, right, false), equalTo((Set<Integer>) CollectionOps.setOf(1, 3, 64, 65, 130, 200)));
+        assertThat(CollectionOps.union(left, right, false), instanceOf(IntSet.class));
+        assertThat(CollectionOps.intersection(left, right, false), equalTo((Set<Integer>) IntSet.of(3, 65)));
+        assertThat(CollectionOps.difference(left, right, false), equalTo((Set<Integer>) IntSet.of(1, 64, 200)));
+        assertThat(CollectionOps.difference(right, left, false), equalTo((Set<Integer>) IntSet.of(130)));
+        assertThat(CollectionOps.symmetricDifference(left, right, false), equalTo((Set<Integer>) IntSet.of(1, 64, 130, 200)));
+        assertThat(CollectionOps.intersection(left, IntSet.of(2), false).isEmpty(), is(true));
+        assertThat(CollectionOps.parIntersection(left, right), instanceOf(IntSet.class));
+        assertThat(left.toList().toArray(), equalTo(new int[]{1, 3, 64, 65, 200}));
+        assertThat(IntSet.copyOf(CollectionOps.setOf(200, 65, 64, 3, 1)), equalTo(left));
+        assertThat(IntSet.fromBitSet(left.toBitSet()), equalTo(left));
+    }
+
+    @Test
+    public void distinctKeepsFirstOccurrence() {
+        List<String> words = Arrays.asList("b", "a", "b", "c", "a");
+        assertThat(CollectionOps.distinct(words), equalTo(Arrays.asList("b", "a", "c")));
+        assertThat(CollectionOps.distinctBy(Arrays.asList("aa", "b", "cc", "d", "eee"), String::length), equalTo(Arrays.asList("aa", "b", "eee")));
+        assertThat(CollectionOps.distinct(new LinkedList<String>(words), BloomFilter.create(100, 0.001)), equalTo(Arrays.asList("b", "a", "c")));
+    }
 }
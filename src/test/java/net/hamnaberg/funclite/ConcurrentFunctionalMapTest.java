@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentFunctionalMapTest {
+    @Test
+    public void getOrComputeMemoizes() {
+        AtomicInteger calls = new AtomicInteger();
+        ConcurrentFunctionalMap<String, Integer> map = ConcurrentFunctionalMap.create();
+        assertEquals(Integer.valueOf(3), map.getOrCompute("abc", k -> calls.incrementAndGet() + 2));
+        assertEquals(Integer.valueOf(3), map.getOrCompute("abc", k -> calls.incrementAndGet() + 2));
+        assertEquals(1, calls.get());
+        assertEquals(Optional.some(3), map.getOptional("abc"));
+        assertTrue(map.getOptional("nope").isNone());
+    }
+
+    @Test
+    public void mergeWithFromManyThreads() throws Exception {
+        ConcurrentFunctionalMap<String, Integer> map = ConcurrentFunctionalMap.create();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 1000; i++) {
+            int n = i;
+            executor.execute(() -> map.mergeWith(n % 2 == 0 ? "even" : "odd", 1, Monoids.intPlusMonoid()));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(MapOps.newHashMap("even", 500, "odd", 500), map);
+    }
+
+    @Test
+    public void snapshotIsDetached() {
+        ConcurrentFunctionalMap<String, Integer> map = ConcurrentFunctionalMap.copyOf(MapOps.newHashMap("a", 1));
+        FunctionalMap<String, Integer> snapshot = map.snapshot();
+        map.put("b", 2);
+        assertEquals(MapOps.newHashMap("a", 1), snapshot);
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void mapValuesAndFilter() {
+        ConcurrentFunctionalMap<Integer, Integer> map = ConcurrentFunctionalMap.create();
+        for (int i = 0; i < 20000; i++) {
+            map.put(i, i);
+        }
+        ConcurrentFunctionalMap<Integer, String> strings = map.mapValues(String::valueOf);
+        assertEquals("1234", strings.get(1234));
+        assertEquals(10000, map.filter(e -> e.getValue() % 2 == 0).size());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class DoubleFunctionalListTest {
+    @Test
+    public void mapAndFilter() {
+        DoubleFunctionalList doubles = DoubleFunctionalList.of(0.5, 1.5, 2.5);
+        assertEquals(DoubleFunctionalList.of(3.0, 5.0), doubles.filter(d -> d > 1).map(d -> d * 2));
+        assertSame(doubles, doubles.filter(d -> d > 0));
+        assertEquals(FunctionalList.of(0.5, 1.5, 2.5), doubles.boxed());
+        assertEquals(doubles, DoubleFunctionalList.copyOf(Arrays.asList(0.5, 1.5, 2.5)));
+    }
+
+    @Test
+    public void aggregates() {
+        DoubleFunctionalList doubles = DoubleFunctionalList.of(3.0, 1.0, 4.0, 1.5);
+        assertEquals(9.5, doubles.sum(), 0.0);
+        assertEquals(1.0, doubles.min().get(), 0.0);
+        assertEquals(4.0, doubles.max().get(), 0.0);
+        assertEquals(18.0, doubles.reduce(Monoids.doubleProductPrimitive()), 0.0);
+        assertEquals(9.5, doubles.reduce(Monoids.doublePlusPrimitive()), 0.0);
+        assertFalse(DoubleFunctionalList.empty().max().isSome());
+    }
+
+    @Test
+    public void nanPropagates() {
+        DoubleFunctionalList doubles = DoubleFunctionalList.of(1.0, Double.NaN, -1.0);
+        assertTrue(Double.isNaN(doubles.sum()));
+        assertTrue(Double.isNaN(doubles.min().get()));
+        assertTrue(Double.isNaN(doubles.max().get()));
+        assertTrue(Double.isNaN(DoubleFunctionalList.of(Double.NaN, 1.0).min().get()));
+    }
+
+    @Test
+    public void signedZeros() {
+        DoubleFunctionalList zeros = DoubleFunctionalList.of(0.0, -0.0);
+        assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(zeros.min().get()));
+        assertEquals(Double.doubleToLongBits(0.0), Double.doubleToLongBits(zeros.max().get()));
+        assertEquals(Double.doubleToLongBits(0.0), Double.doubleToLongBits(zeros.sum()));
+        assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(DoubleFunctionalList.of(-0.0, -0.0).sum()));
+        assertEquals(Double.doubleToLongBits(0.0), Double.doubleToLongBits(DoubleFunctionalList.empty().sum()));
+    }
+
+    @Test
+    public void infinities() {
+        DoubleFunctionalList doubles = DoubleFunctionalList.of(Double.NEGATIVE_INFINITY, 0.0, Double.POSITIVE_INFINITY);
+        assertEquals(Double.NEGATIVE_INFINITY, doubles.min().get(), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, doubles.max().get(), 0.0);
+        assertTrue(Double.isNaN(doubles.sum()));
+    }
+}
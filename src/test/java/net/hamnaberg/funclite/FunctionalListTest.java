@@ -19,6 +19,11 @@ package net.hamnaberg.funclite;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
@@ -72,4 +77,167 @@ public class FunctionalListTest {
         }));
 
     }
+
+    @Test
+    public void appendAndPrependDoNotChangeOriginal() {
+        FunctionalList<Integer> ints = FunctionalList.of(1, 2, 3);
+        assertEquals(FunctionalList.of(1, 2, 3, 4), ints.append(4));
+        assertEquals(FunctionalList.of(0, 1, 2, 3), ints.prepend(0));
+        assertEquals(FunctionalList.of(1, 2, 3), ints);
+    }
+
+    @Test
+    public void buildStepByStep() {
+        FunctionalList<Integer> list = FunctionalList.empty();
+        for (int i = 0; i < 1000; i++) {
+            list = list.append(i);
+        }
+        assertEquals(1000, list.size());
+        assertEquals(Integer.valueOf(1), list.tail().head());
+        assertEquals(FunctionalList.of(10, 11, 12), list.drop(10).take(3));
+        assertEquals(Integer.valueOf(-1), list.updated(500, -1).get(500));
+        assertEquals(Integer.valueOf(500), list.get(500));
+    }
+
+    @Test
+    public void dropAndTakeOnNonVectorLists() {
+        FunctionalList<Integer> mapped = FunctionalList.of(1, 2, 3, 4, 5).map(i -> i * 10);
+        assertEquals(FunctionalList.of(20, 30, 40, 50), mapped.drop(1));
+        assertEquals(FunctionalList.of(30, 40), mapped.drop(2).take(2));
+        assertEquals(FunctionalList.of(30, 40, 60), mapped.drop(2).take(2).append(60));
+        assertEquals(FunctionalList.of(0, 10), mapped.take(1).prepend(0));
+        assertTrue(mapped.drop(10).isEmpty());
+        assertTrue(mapped.take(-1).isEmpty());
+        assertEquals(FunctionalList.of(50), mapped.tail().tail().tail().tail());
+    }
+
+    @Test
+    public void concat() {
+        FunctionalList<Integer> list = FunctionalList.of(1, 2).concat(FunctionalList.of(3, 4));
+        assertEquals(FunctionalList.of(1, 2, 3, 4), list);
+    }
+
+    @Test
+    public void parReduce() {
+        FunctionalList<Long> list = FunctionalList.empty();
+        for (long i = 1; i <= 10000; i++) {
+            list = list.append(i);
+        }
+        assertEquals(Long.valueOf(50005000L), list.parReduce(Monoids.longPlusMonoid()));
+    }
+
+    @Test
+    public void countByDefaultsToZero() {
+        FunctionalMap<Boolean, Integer> counts = FunctionalList.of(1, 2, 3).countBy(i -> i > 5);
+        assertEquals(Integer.valueOf(3), counts.get(false));
+        assertEquals(Integer.valueOf(0), counts.get(true));
+    }
+
+    @Test
+    public void parGroupByMatchesGroupBy() {
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 20000; i++) {
+            values.add(i);
+        }
+        FunctionalList<Integer> list = FunctionalList.copyOf(values);
+        Map<Integer, List<Integer>> sequential = list.groupBy(i -> i % 7);
+        Map<Integer, List<Integer>> parallel = list.parGroupBy(i -> i % 7);
+        assertEquals(sequential.keySet(), parallel.keySet());
+        for (Integer key : sequential.keySet()) {
+            assertEquals(new HashSet<Integer>(sequential.get(key)), new HashSet<Integer>(parallel.get(key)));
+        }
+        assertEquals(FunctionalMap.create(CollectionOps.groupMapReduce(values, i -> i % 7, i -> 1, Monoids.intPlusMonoid()), 0),
+                list.parGroupMapReduce(i -> i % 7, i -> 1, Monoids.intPlusMonoid()));
+    }
+
+    @Test
+    public void countByCountsNullKeys() {
+        FunctionalMap<String, Integer> counts = FunctionalList.of("a", null, "b", null).countBy(Function.identity());
+        assertEquals(Integer.valueOf(2), counts.get(null));
+        assertEquals(Integer.valueOf(1), counts.get("a"));
+    }
+
+    @Test
+    public void forEachWhileStopsEarly() {
+        FunctionalList<Integer> list = FunctionalList.empty();
+        for (int i = 0; i < 100; i++) {
+            list = list.append(i);
+        }
+        AtomicInteger visited = new AtomicInteger();
+        assertFalse(list.drop(10).forEachWhile(i -> visited.incrementAndGet() < 40));
+        assertEquals(40, visited.get());
+
+        ArrayList<Integer> seen = new ArrayList<Integer>();
+        assertTrue(list.drop(30).take(40).forEachWhile(seen::add));
+        assertEquals(40, seen.size());
+        assertEquals(Integer.valueOf(30), seen.get(0));
+        assertEquals(Integer.valueOf(69), seen.get(39));
+    }
+
+    @Test
+    public void sortedAndSortBy() {
+        FunctionalList<String> words = FunctionalList.of("pear", "fig", "apple", "kiwi", "plum");
+        assertEquals(FunctionalList.of("apple", "fig", "kiwi", "pear", "plum"), words.sorted(Comparator.<String>naturalOrder()));
+        assertEquals(FunctionalList.of("fig", "pear", "kiwi", "plum", "apple"), words.sortByInt(String::length));
+        assertEquals(FunctionalList.of("fig", "pear", "kiwi", "plum", "apple"), words.sortByLong(String::length));
+
+        AtomicInteger keys = new AtomicInteger();
+        assertEquals(FunctionalList.of("fig", "pear", "kiwi", "plum", "apple"), words.sortBy(w -> {
+            keys.incrementAndGet();
+            return w.length();
+        }));
+        assertEquals(5, keys.get());
+    }
+
+    @Test
+    public void primitiveSortsMatchComparatorSort() {
+        Random random = new Random(7);
+        List<Long> values = new ArrayList<Long>();
+        for (int i = 0; i < 5000; i++) {
+            values.add((long) random.nextInt(200) - 100);
+        }
+        FunctionalList<Long> list = FunctionalList.copyOf(values);
+        FunctionalList<Long> expected = list.sortBy(v -> v / 10);
+        assertEquals(expected, list.sortByInt(v -> (int) (v / 10)));
+        assertEquals(expected, list.sortByLong(v -> v / 10));
+        assertEquals(expected, list.parSortBy(v -> v / 10));
+        assertEquals(list.sorted(Comparator.<Long>naturalOrder()), list.parSorted(Comparator.<Long>naturalOrder()));
+    }
+
+    @Test
+    public void topKAndBottomK() {
+        Random random = new Random(11);
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 10000; i++) {
+            values.add(random.nextInt(1000));
+        }
+        FunctionalList<Integer> list = FunctionalList.copyOf(values);
+        FunctionalList<Integer> ascending = list.sorted(Comparator.<Integer>naturalOrder());
+        assertEquals(ascending.take(100), list.bottomK(100, Comparator.<Integer>naturalOrder()));
+        assertEquals(list.sorted(Comparator.<Integer>reverseOrder()).take(100), list.topK(100, Comparator.<Integer>naturalOrder()));
+        assertEquals(FunctionalList.of(3, 2, 1), FunctionalList.of(1, 3, 2).topK(10, Comparator.<Integer>naturalOrder()));
+        assertTrue(list.topK(0, Comparator.<Integer>naturalOrder()).isEmpty());
+        assertEquals(FunctionalList.of("bb", "cc"), FunctionalList.of("a", "bb", "cc", "dd").topK(2, Comparator.comparing(String::length)));
+    }
+
+    @Test
+    public void topKLargerThanInput() {
+        FunctionalList<Integer> list = FunctionalList.of(3, 1, 2);
+        assertEquals(FunctionalList.of(3, 2, 1), list.topK(Integer.MAX_VALUE, Comparator.<Integer>naturalOrder()));
+        assertEquals(FunctionalList.of(1, 2, 3), list.bottomK(Integer.MAX_VALUE, Comparator.<Integer>naturalOrder()));
+        assertTrue(FunctionalList.<Integer>empty().topK(Integer.MAX_VALUE, Comparator.<Integer>naturalOrder()).isEmpty());
+
+        Iterable<Integer> notACollection = LazySeq.iterate(0, i -> i + 1).take(100);
+        assertEquals(100, Sorting.topK(notACollection, Integer.MAX_VALUE, Comparator.<Integer>naturalOrder()).size());
+        assertEquals(FunctionalList.of(99, 98, 97, 96, 95, 94, 93, 92, 91, 90, 89, 88, 87, 86, 85, 84, 83, 82, 81, 80),
+                FunctionalList.copyOf(Sorting.topK(notACollection, 20, Comparator.<Integer>naturalOrder())));
+    }
+
+    @Test
+    public void distinctWithBloomFilterAcrossBatches() {
+        BloomFilter<Integer> seen = BloomFilter.create(1000, 0.001);
+        assertEquals(FunctionalList.of(1, 2, 3), FunctionalList.of(1, 2, 1, 3, 2).distinct(seen));
+        assertEquals(FunctionalList.of(4), FunctionalList.of(3, 4, 1).distinct(seen));
+        assertEquals(FunctionalList.of(1, 2), FunctionalList.of(1, 3, 2, 4).distinctBy(i -> i % 2));
+    }
 }
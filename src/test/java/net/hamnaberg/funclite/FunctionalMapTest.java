@@ -20,6 +20,7 @@ import org.junit.Test;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -68,4 +69,74 @@ public class FunctionalMapTest {
 
         assertEquals(Integer.valueOf(3), mappedValues.get("three"));
     }
+
+    @Test
+    public void updatedAndRemoved() {
+        FunctionalMap<String, Integer> map = FunctionalMap.create(MapOps.newHashMap("a", 1, "b", 2), 0);
+        FunctionalMap<String, Integer> changed = map.updated("c", 3).removed("a");
+
+        assertEquals(MapOps.newHashMap("a", 1, "b", 2), map);
+        assertEquals(MapOps.newHashMap("b", 2, "c", 3), changed);
+        assertEquals(Integer.valueOf(0), changed.get("a"));
+    }
+
+    @Test
+    public void merge() {
+        FunctionalMap<String, Integer> left = FunctionalMap.create(MapOps.newHashMap("a", 1, "b", 2));
+        FunctionalMap<String, Integer> right = FunctionalMap.create(MapOps.newHashMap("b", 10, "c", 3));
+
+        assertEquals(MapOps.newHashMap("a", 1, "b", 12, "c", 3), left.merge(right, Monoids.intPlusMonoid()));
+    }
+
+    @Test
+    public void builder() {
+        FunctionalMap<String, Integer> map = FunctionalMap.<String, Integer>builder().put("a", 1).put("b", 2).remove("a").build();
+        assertEquals(MapOps.newHashMap("b", 2), map);
+        assertEquals(MapOps.newHashMap("b", 2, "c", 3), map.toBuilder().put("c", 3).build());
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void mapValuesViewComputesOnAccess() {
+        AtomicInteger calls = new AtomicInteger();
+        FunctionalMap<String, String> map = FunctionalMap.create(MapOps.newHashMap("one", "1", "two", "2", "three", "3"));
+        FunctionalMap<String, Integer> view = map.mapValuesView(v -> {
+            calls.incrementAndGet();
+            return Integer.valueOf(v);
+        }, true);
+
+        assertEquals(0, calls.get());
+        assertEquals(Integer.valueOf(2), view.get("two"));
+        assertEquals(Integer.valueOf(2), view.get("two"));
+        assertNull(view.get("four"));
+        assertEquals(1, calls.get());
+        assertEquals(3, view.size());
+        assertEquals(MapOps.newHashMap("one", 1, "two", 2, "three", 3), view.force());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void filterView() {
+        FunctionalMap<String, Integer> map = FunctionalMap.create(MapOps.newHashMap("a", 1, "b", 2, "c", 3), 0);
+        FunctionalMap<String, Integer> odd = map.filterView(e -> e.getValue() % 2 == 1);
+
+        assertEquals(Integer.valueOf(3), odd.get("c"));
+        assertEquals(Integer.valueOf(0), odd.get("b"));
+        assertFalse(odd.containsKey("b"));
+        assertEquals(2, odd.size());
+        assertEquals(MapOps.newHashMap("a", 1, "c", 3), odd.force());
+        assertEquals(MapOps.newHashMap("a", 1), map.filterKeysView("a"::equals));
+    }
+
+    @Test
+    public void forEachWhile() {
+        FunctionalMap<String, Integer> map = FunctionalMap.<String, Integer>empty().updated(null, 0).updated("a", 1).updated("b", 2);
+        Map<String, Integer> seen = MapOps.newHashMap();
+        assertTrue(map.forEachWhile(e -> seen.put(e.getKey(), e.getValue()) == null));
+        assertEquals(MapOps.newHashMap(null, 0, "a", 1, "b", 2), seen);
+
+        AtomicInteger visited = new AtomicInteger();
+        assertFalse(map.forEachWhile(e -> visited.incrementAndGet() < 2));
+        assertEquals(2, visited.get());
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class HistogramOpsMetricsTest {
+    private final HistogramOpsMetrics metrics = new HistogramOpsMetrics();
+
+    @After
+    public void uninstall() {
+        OpsMetrics.install(OpsMetrics.none());
+    }
+
+    @Test
+    public void recordsNothingUntilInstalled() {
+        CollectionOps.map(Arrays.asList(1, 2, 3), i -> i + 1);
+        assertEquals(0, metrics.calls("CollectionOps.map"));
+    }
+
+    @Test
+    public void recordsCallsAndSizes() {
+        OpsMetrics.install(metrics);
+        CollectionOps.map(Arrays.asList(1, 2, 3), i -> i + 1);
+        CollectionOps.filter(Arrays.asList(1, 2, 3, 4), i -> i % 2 == 0);
+        FunctionalList.of(1, 2, 3).filter(i -> i > 1);
+        FunctionalMap.create(MapOps.newHashMap("a", 1, "b", 2)).mapValues(i -> i * 2);
+
+        assertEquals(1, metrics.calls("CollectionOps.map"));
+        assertEquals(3, metrics.inputElements("CollectionOps.map"));
+        assertEquals(3, metrics.outputElements("CollectionOps.map"));
+        assertEquals(4, metrics.inputElements("CollectionOps.filter"));
+        assertEquals(2, metrics.outputElements("CollectionOps.filter"));
+        assertEquals(1, metrics.calls("FunctionalList.filter"));
+        assertEquals(1, metrics.calls("CollectionOps.filter"));
+        assertEquals(1, metrics.calls("FunctionalMap.mapValues"));
+        assertEquals(0, metrics.calls("MapOps.mapValues"));
+    }
+
+    @Test
+    public void reports() {
+        metrics.record("CollectionOps.map", 10, 10, 1500);
+        metrics.record("CollectionOps.map", 10, 10, 2500);
+        metrics.record("Weird \"op\"", -1, -1, 10);
+
+        String report = metrics.report();
+        assertTrue(report, report.contains("CollectionOps.map"));
+        assertEquals("{\"operations\":["
+                + "{\"name\":\"CollectionOps.map\",\"calls\":2,\"inputElements\":20,\"outputElements\":20,\"totalNanos\":4000,\"p50Nanos\":2047,\"p99Nanos\":2500,\"maxNanos\":2500},"
+                + "{\"name\":\"Weird \\\"op\\\"\",\"calls\":1,\"inputElements\":0,\"outputElements\":0,\"totalNanos\":10,\"p50Nanos\":10,\"p99Nanos\":10,\"maxNanos\":10}"
+                + "]}", metrics.toJson());
+    }
+}
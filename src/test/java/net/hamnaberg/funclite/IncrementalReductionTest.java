@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IncrementalReductionTest {
+    private static final Monoid<String> CONCAT = new Monoid<String>() {
+        @Override
+        public String zero() {
+            return "";
+        }
+
+        @Override
+        public String append(String a, String b) {
+            return a + b;
+        }
+    };
+
+    @Test
+    public void reduceAndUpdate() {
+        IncrementalReduction<Integer> sum = FunctionalList.of(1, 2, 3, 4, 5).incrementalReduce(Monoids.intPlusMonoid());
+        assertEquals(Integer.valueOf(15), sum.reduce());
+        assertEquals(Integer.valueOf(9), sum.reduce(1, 4));
+        sum.update(2, 10);
+        assertEquals(Integer.valueOf(22), sum.reduce());
+        assertEquals(Integer.valueOf(16), sum.reduce(1, 4));
+        assertEquals(Integer.valueOf(0), sum.reduce(3, 3));
+        assertEquals(FunctionalList.of(1, 2, 10, 4, 5), sum.toList());
+    }
+
+    @Test
+    public void preservesOrder() {
+        Random random = new Random(42);
+        List<String> letters = new ArrayList<String>();
+        for (int size = 0; size < 40; size++) {
+            IncrementalReduction<String> reduction = IncrementalReduction.create(letters, CONCAT);
+            assertEquals(String.join("", letters), reduction.reduce());
+            for (int from = 0; from <= size; from++) {
+                for (int to = from; to <= size; to++) {
+                    assertEquals(String.join("", letters.subList(from, to)), reduction.reduce(from, to));
+                }
+            }
+            letters.add(String.valueOf((char) ('a' + random.nextInt(26))));
+        }
+    }
+
+    @Test
+    public void emptyAndSingleton() {
+        assertEquals("", IncrementalReduction.create(FunctionalList.<String>empty(), CONCAT).reduce());
+        IncrementalReduction<String> one = IncrementalReduction.create(FunctionalList.of("a"), CONCAT);
+        one.update(0, "b");
+        assertEquals("b", one.reduce());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void updateOutOfBounds() {
+        FunctionalList.of(1, 2, 3).incrementalReduce(Monoids.intPlusMonoid()).update(3, 1);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IntFunctionalListTest {
+    @Test
+    public void mapAndFilter() {
+        IntFunctionalList ints = IntFunctionalList.of(1, 2, 3, 4, 5);
+        assertEquals(IntFunctionalList.of(4, 8), ints.filter(i -> i % 2 == 0).map(i -> i * 2));
+        assertSame(ints, ints.filter(i -> i > 0));
+    }
+
+    @Test
+    public void aggregates() {
+        IntFunctionalList ints = IntFunctionalList.of(3, 1, 4, 1, 5);
+        assertEquals(14, ints.sum());
+        assertEquals(1, ints.min().get());
+        assertEquals(5, ints.max().get());
+        assertEquals(60, ints.reduce(Monoids.intProductPrimitive()));
+        assertFalse(IntFunctionalList.empty().max().isSome());
+    }
+
+    @Test
+    public void ofDoesNotShareArray() {
+        int[] values = {1, 2, 3};
+        IntFunctionalList ints = IntFunctionalList.of(values);
+        values[0] = 42;
+        assertEquals(1, ints.get(0));
+    }
+
+    @Test
+    public void bridgesFromFunctionalList() {
+        FunctionalList<String> words = FunctionalList.of("a", "bb", "ccc");
+        assertEquals(IntFunctionalList.of(1, 2, 3), words.mapToInt(String::length));
+        assertEquals(6L, words.mapToLong(String::length).reduce(Monoids.longPlusPrimitive()));
+        assertEquals(6.0, words.mapToDouble(String::length).sum(), 0.0);
+        assertEquals(FunctionalList.of(1, 2, 3), words.mapToInt(String::length).boxed());
+    }
+}
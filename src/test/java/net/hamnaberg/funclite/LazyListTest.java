@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LazyListTest {
+    @Test
+    public void nothingRunsUntilForced() {
+        AtomicInteger calls = new AtomicInteger();
+        LazyList<Integer> view = FunctionalList.of(1, 2, 3).view().map(i -> {
+            calls.incrementAndGet();
+            return i * 2;
+        });
+        assertEquals(0, calls.get());
+        assertEquals(FunctionalList.of(2, 4, 6), view.toList());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void fusedChain() {
+        FunctionalList<String> list = FunctionalList.of("1", "2", "x", "3", "4");
+        FunctionalList<Integer> result = list.view()
+                .flatMap(s -> s.equals("x") ? Optional.<Integer>none() : Optional.some(Integer.valueOf(s)))
+                .filter(i -> i % 2 == 0)
+                .map(i -> i * 10)
+                .toList();
+        assertEquals(FunctionalList.of(20, 40), result);
+    }
+
+    @Test
+    public void findStopsEarly() {
+        AtomicInteger calls = new AtomicInteger();
+        Optional<Integer> found = FunctionalList.of(1, 2, 3, 4, 5).view()
+                .map(i -> {
+                    calls.incrementAndGet();
+                    return i;
+                })
+                .find(i -> i == 2);
+        assertEquals(Optional.some(2), found);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void terminals() {
+        LazyList<Integer> view = FunctionalList.of(1, 2, 3, 4).view();
+        assertEquals(Integer.valueOf(10), view.reduce(Monoids.intPlusMonoid()));
+        assertEquals(Optional.some(1), view.headOption());
+        assertTrue(view.exists(i -> i == 4));
+        assertFalse(view.exists(i -> i == 5));
+        assertTrue(view.forall(Predicates.positive()));
+        assertTrue(FunctionalList.<Integer>empty().view().headOption().isNone());
+    }
+
+    @Test
+    public void distinctIsLazyAndPerTraversal() {
+        AtomicInteger pulled = new AtomicInteger();
+        LazyList<Integer> distinct = LazyList.from(Arrays.asList(1, 1, 2, 2, 3, 3)).map(i -> {
+            pulled.incrementAndGet();
+            return i;
+        }).distinct();
+        assertEquals(FunctionalList.of(1, 2), distinct.take(2).toList());
+        assertEquals(3, pulled.get());
+        assertEquals(FunctionalList.of(1, 2, 3), distinct.toList());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class LazySeqTest {
+    @Test
+    public void iterateTakeMapFilter() {
+        LazySeq<Integer> naturals = LazySeq.iterate(0, i -> i + 1);
+        assertEquals(FunctionalList.of(0, 4, 16, 36, 64), naturals.filter(i -> i % 2 == 0).map(i -> i * i).take(5).toList());
+        assertEquals(FunctionalList.of(0, 1, 2), naturals.takeWhile(i -> i < 3).toList());
+        assertEquals(Integer.valueOf(10), naturals.drop(10).head());
+    }
+
+    @Test
+    public void memoizesEachElementOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        LazySeq<Integer> seq = LazySeq.generate(calls::incrementAndGet).take(5);
+        assertEquals(FunctionalList.of(1, 2, 3, 4, 5), seq.toList());
+        assertEquals(FunctionalList.of(1, 2, 3, 4, 5), seq.toList());
+        assertEquals(5, calls.get());
+    }
+
+    @Test
+    public void unfoldPages() {
+        List<List<String>> pages = Arrays.asList(Arrays.asList("a", "b"), Collections.<String>emptyList(), Arrays.asList("c"));
+        AtomicInteger fetched = new AtomicInteger();
+        LazySeq<List<String>> seq = LazySeq.unfold(0, cursor -> {
+            if (cursor >= pages.size()) {
+                return Optional.none();
+            }
+            fetched.incrementAndGet();
+            return Optional.<Map.Entry<List<String>, Integer>>some(new AbstractMap.SimpleImmutableEntry<>(pages.get(cursor), cursor + 1));
+        });
+        LazySeq<String> items = seq.flatMap(page -> page);
+        assertEquals("a", items.head());
+        assertEquals(1, fetched.get());
+        assertEquals(Arrays.asList("a", "b", "c"), items.stream().collect(Collectors.toList()));
+        assertEquals(3, fetched.get());
+    }
+
+    @Test
+    public void zipStopsAtShorter() {
+        LazySeq<String> zipped = LazySeq.of("a", "b", "c").zip(LazySeq.iterate(1, i -> i + 1), (s, i) -> s + i);
+        assertEquals(FunctionalList.of("a1", "b2", "c3"), zipped.toList());
+        assertTrue(LazySeq.<String>empty().zip(LazySeq.of(1), (s, i) -> s + i).isEmpty());
+    }
+
+    @Test
+    public void stackSafeOnLongSequences() {
+        LazySeq<Integer> seq = LazySeq.iterate(0, i -> i + 1).filter(i -> i % 100000 == 99999).map(i -> i / 100000);
+        assertEquals(Integer.valueOf(9), seq.drop(9).head());
+
+        long[] sum = {0};
+        LazySeq.iterate(0L, i -> i + 1).take(1000000).foreach(i -> sum[0] += i);
+        assertEquals(499999500000L, sum[0]);
+        assertFalse(LazySeq.from(FunctionalList.of(1, 2, 3)).forEachWhile(i -> i < 2));
+    }
+
+    @Test
+    public void stackedFiltersDoNotNest() throws Exception {
+        List<String> tested = new ArrayList<>();
+        LazySeq<Integer> evens = LazySeq.of(1, 2, 3, 4, 5, 6)
+                .filter(i -> { tested.add("even " + i); return i % 2 == 0; })
+                .filter(i -> { tested.add("big " + i); return i > 2; });
+        assertEquals(FunctionalList.of(4, 6), evens.toList());
+        assertEquals(Arrays.asList("even 1", "even 2", "big 2", "even 3", "even 4", "big 4", "even 5", "even 6", "big 6"), tested);
+
+        Object[] result = new Object[1];
+        Thread thread = new Thread(null, () -> {
+            LazySeq<Integer> seq = LazySeq.iterate(0, i -> i + 1);
+            for (int i = 0; i < 5000; i++) {
+                seq = seq.filter(x -> true);
+            }
+            result[0] = seq.take(3).toList();
+        }, "small-stack", 512 * 1024);
+        thread.start();
+        thread.join();
+        assertEquals(FunctionalList.of(0, 1, 2), result[0]);
+    }
+
+    @Test
+    public void concurrentReadersShareCells() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        LazySeq<Integer> seq = LazySeq.generate(calls::incrementAndGet).take(10000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<FunctionalList<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(seq::toList));
+            }
+            FunctionalList<Integer> first = results.get(0).get();
+            for (Future<FunctionalList<Integer>> result : results) {
+                assertEquals(first, result.get());
+            }
+            assertEquals(10000, calls.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class LongFunctionalListTest {
+    @Test
+    public void mapAndFilter() {
+        LongFunctionalList longs = LongFunctionalList.of(1L, 2L, 3L, 4L, 5L);
+        assertEquals(LongFunctionalList.of(4L, 8L), longs.filter(l -> l % 2 == 0).map(l -> l * 2));
+        assertSame(longs, longs.filter(l -> l > 0));
+        assertEquals(FunctionalList.of("1", "2", "3", "4", "5"), longs.mapToObj(Long::toString));
+    }
+
+    @Test
+    public void aggregates() {
+        LongFunctionalList longs = LongFunctionalList.of(3L, 1L, 4L, 1L, 5L);
+        assertEquals(14L, longs.sum());
+        assertEquals(1L, longs.min().get());
+        assertEquals(5L, longs.max().get());
+        assertEquals(60L, longs.reduce(Monoids.longProductPrimitive()));
+        assertEquals(14L, longs.reduce(Monoids.longPlusPrimitive()));
+        assertFalse(LongFunctionalList.empty().min().isSome());
+        assertEquals(0L, LongFunctionalList.empty().sum());
+    }
+
+    @Test
+    public void valuesBeyondIntRange() {
+        LongFunctionalList longs = LongFunctionalList.of(Long.MAX_VALUE, Long.MIN_VALUE, 1L << 40);
+        assertEquals(Long.MIN_VALUE, longs.min().get());
+        assertEquals(Long.MAX_VALUE, longs.max().get());
+    }
+
+    @Test
+    public void copiesDoNotShareArray() {
+        long[] values = {1L, 2L, 3L};
+        LongFunctionalList longs = LongFunctionalList.copyOf(values);
+        values[0] = 42L;
+        assertEquals(1L, longs.get(0));
+        longs.toArray()[1] = 42L;
+        assertEquals(2L, longs.get(1));
+    }
+
+    @Test
+    public void roundTripsThroughBoxed() {
+        LongFunctionalList longs = LongFunctionalList.copyOf(Arrays.asList(7L, 8L, 9L));
+        assertEquals(FunctionalList.of(7L, 8L, 9L), longs.boxed());
+        assertEquals(longs, LongFunctionalList.copyOf(longs.boxed()));
+        assertTrue(longs.exists(l -> l == 8L));
+        assertTrue(longs.forall(l -> l > 6L));
+        assertEquals(24L, longs.stream().sum());
+    }
+}
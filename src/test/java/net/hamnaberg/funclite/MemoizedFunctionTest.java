@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class MemoizedFunctionTest {
+    @Test
+    public void unboundedMemoizes() {
+        AtomicInteger calls = new AtomicInteger();
+        MemoizedFunction<String, Integer> length = Functions.memoize(s -> {
+            calls.incrementAndGet();
+            return s.length();
+        });
+        assertEquals(Integer.valueOf(3), length.apply("abc"));
+        assertEquals(Integer.valueOf(3), length.apply("abc"));
+        assertEquals(1, calls.get());
+        assertEquals(new CacheStats(1, 1, 0), length.stats());
+    }
+
+    @Test
+    public void lruEvictsLeastRecentlyUsed() {
+        MemoizedFunction<Integer, Integer> f = Functions.memoize(i -> i * 2, CacheSpec.maximumSize(2).eviction(CacheSpec.Eviction.LRU));
+        f.apply(1);
+        f.apply(2);
+        f.apply(1);
+        f.apply(3);
+        assertEquals(2, f.size());
+        assertEquals(1, f.stats().evictionCount());
+        f.apply(1);
+        assertEquals(2, f.stats().hitCount());
+    }
+
+    @Test
+    public void tinyLfuKeepsHotKeysUnderScan() {
+        MemoizedFunction<Integer, Integer> f = Functions.memoize(i -> i, CacheSpec.maximumSize(100));
+        for (int round = 0; round < 20; round++) {
+            for (int hot = 0; hot < 50; hot++) {
+                f.apply(hot);
+            }
+        }
+        for (int cold = 1000; cold < 11000; cold++) {
+            f.apply(cold);
+        }
+        long hitsBefore = f.stats().hitCount();
+        for (int hot = 0; hot < 50; hot++) {
+            f.apply(hot);
+        }
+        assertTrue(f.size() <= 100);
+        assertEquals(50, f.stats().hitCount() - hitsBefore);
+    }
+
+    @Test
+    public void tinyLfuRespectsTinyMaximumSizes() {
+        MemoizedFunction<Integer, Integer> one = Functions.memoize(i -> i, CacheSpec.maximumSize(1));
+        for (int i = 0; i < 3; i++) {
+            one.apply(i);
+            assertEquals(1, one.size());
+        }
+        assertEquals(2, one.stats().evictionCount());
+
+        MemoizedFunction<Integer, Integer> two = Functions.memoize(i -> i, CacheSpec.maximumSize(2));
+        for (int i = 0; i < 10; i++) {
+            two.apply(i);
+            two.apply(0);
+            assertTrue(two.size() <= 2);
+        }
+        assertEquals(2, two.size());
+        long hitsBefore = two.stats().hitCount();
+        two.apply(0);
+        assertEquals(1, two.stats().hitCount() - hitsBefore);
+    }
+
+    @Test
+    public void sketchCountersSaturateIndependently() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("hot");
+        }
+        sketch.increment("warm");
+        sketch.increment("warm");
+        assertEquals(15, sketch.frequency("hot"));
+        assertEquals(2, sketch.frequency("warm"));
+        assertEquals(0, sketch.frequency("cold"));
+    }
+
+    @Test
+    public void expireAfterWrite() {
+        AtomicLong time = new AtomicLong();
+        AtomicInteger calls = new AtomicInteger();
+        CacheSpec spec = CacheSpec.unbounded().expireAfterWrite(10, TimeUnit.NANOSECONDS).ticker(time::get);
+        MemoizedFunction<String, Integer> f = Functions.memoize(s -> calls.incrementAndGet(), spec);
+        assertEquals(Integer.valueOf(1), f.apply("a"));
+        time.set(5);
+        assertEquals(Integer.valueOf(1), f.apply("a"));
+        time.set(10);
+        assertEquals(Integer.valueOf(2), f.apply("a"));
+    }
+
+    @Test
+    public void nullResultsAreNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        MemoizedFunction<String, String> f = Functions.memoize(s -> {
+            calls.incrementAndGet();
+            return null;
+        });
+        assertNull(f.apply("a"));
+        assertNull(f.apply("a"));
+        assertEquals(2, calls.get());
+    }
+}
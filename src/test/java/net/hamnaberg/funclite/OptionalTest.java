@@ -72,4 +72,42 @@ public class OptionalTest {
         });
         assertEquals(0, b.intValue());
     }
+
+    @Test
+    public void predicatesWithoutStreams() {
+        Optional<String> some = Optional.some("a");
+        Optional<String> none = Optional.none();
+        assertTrue(some.exists("a"::equals));
+        assertTrue(some.contains("a"));
+        assertFalse(some.forall(String::isEmpty));
+        assertFalse(none.exists(s -> true));
+        assertFalse(none.contains("a"));
+        assertTrue(none.forall(s -> false));
+        assertEquals(1, some.stream().count());
+        assertEquals(0, none.stream().count());
+    }
+
+    @Test(expected = java.util.NoSuchElementException.class)
+    public void someIteratorIsExhausted() {
+        java.util.Iterator<String> it = Optional.some("a").iterator();
+        it.next();
+        it.next();
+    }
+
+    @Test
+    public void primitiveOptionals() {
+        assertSame(OptionalInt.none(), OptionalInt.some(3).filter(i -> i > 5));
+        assertEquals(OptionalInt.some(6), OptionalInt.some(3).map(i -> i * 2));
+        assertEquals(4L, OptionalLong.none().getOrElse(4L));
+        assertTrue(OptionalDouble.some(1.5).exists(d -> d > 1));
+        assertEquals(Optional.some(3), OptionalInt.some(3).boxed());
+        assertEquals(OptionalInt.some(3), OptionalOps.fromJavaOptional(java.util.OptionalInt.of(3)));
+    }
+
+    @Test
+    public void forEachWhile() {
+        assertFalse(Optional.some("hello").forEachWhile(String::isEmpty));
+        assertTrue(Optional.some("hello").forEachWhile(s -> !s.isEmpty()));
+        assertTrue(Optional.<String>none().forEachWhile(String::isEmpty));
+    }
 }
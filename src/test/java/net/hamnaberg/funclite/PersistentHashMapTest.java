@@ -0,0 +1,112 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PersistentHashMapTest {
+    @Test
+    public void behavesLikeHashMap() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.removed(key);
+            }
+            else {
+                expected.put(key, i);
+                map = map.updated(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void collidingKeys() {
+        PersistentHashMap<Colliding, String> map = PersistentHashMap.empty();
+        for (int i = 0; i < 10; i++) {
+            map = map.updated(new Colliding(i), "v" + i);
+        }
+        assertEquals(10, map.size());
+        assertEquals("v7", map.get(new Colliding(7)));
+        map = map.removed(new Colliding(7));
+        assertNull(map.get(new Colliding(7)));
+        assertEquals(9, map.size());
+    }
+
+    @Test
+    public void nullKeysAndValues() {
+        PersistentHashMap<String, String> map = PersistentHashMap.<String, String>empty().updated(null, "a").updated("b", null);
+        assertEquals("a", map.get(null));
+        assertTrue(map.containsKey("b"));
+        assertFalse(map.containsKey("c"));
+        assertEquals(1, map.removed(null).size());
+    }
+
+    @Test
+    public void updatesShareButDoNotChangeOriginal() {
+        PersistentHashMap<String, Integer> original = PersistentHashMap.copyOf(MapOps.newHashMap("a", 1, "b", 2));
+        PersistentHashMap<String, Integer> updated = original.updated("a", 3).removed("b");
+        assertEquals(MapOps.newHashMap("a", 1, "b", 2), original);
+        assertEquals(MapOps.newHashMap("a", 3), updated);
+    }
+
+    @Test
+    public void builderDoesNotLeakIntoBuiltMaps() {
+        PersistentHashMap.Builder<Integer, Integer> builder = new PersistentHashMap.Builder<>(PersistentHashMap.<Integer, Integer>empty());
+        for (int i = 0; i < 100; i++) {
+            builder.put(i, i);
+        }
+        PersistentHashMap<Integer, Integer> first = builder.build();
+        builder.put(1000, 1000).remove(5);
+        PersistentHashMap<Integer, Integer> second = builder.build();
+        assertEquals(100, first.size());
+        assertTrue(first.containsKey(5));
+        assertFalse(first.containsKey(1000));
+        assertEquals(100, second.size());
+        assertFalse(second.containsKey(5));
+    }
+
+    private static final class Colliding {
+        private final int id;
+
+        Colliding(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Colliding && ((Colliding) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 17;
+        }
+    }
+}
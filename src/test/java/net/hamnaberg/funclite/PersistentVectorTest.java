@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PersistentVectorTest {
+    @Test
+    public void appendAndGet() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            vector = vector.append(i);
+            expected.add(i);
+        }
+        assertEquals(expected, vector);
+        assertEquals(Integer.valueOf(4321), vector.get(4321));
+    }
+
+    @Test
+    public void prependKeepsOrder() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            vector = vector.prepend(i);
+            expected.add(0, i);
+        }
+        assertEquals(expected, vector);
+    }
+
+    @Test
+    public void updatedDoesNotChangeOriginal() {
+        PersistentVector<String> vector = PersistentVector.copyOf(CollectionOps.of("a", "b", "c"));
+        PersistentVector<String> updated = vector.updated(1, "x");
+        assertEquals(CollectionOps.of("a", "b", "c"), vector);
+        assertEquals(CollectionOps.of("a", "x", "c"), updated);
+    }
+
+    @Test
+    public void dropAndTakeShareStructure() {
+        PersistentVector<Integer> vector = PersistentVector.copyOf(range(100));
+        PersistentVector<Integer> window = vector.drop(10).take(20);
+        assertEquals(range(100).subList(10, 30), window);
+        assertEquals(Integer.valueOf(99), window.append(99).get(20));
+        assertEquals(Integer.valueOf(30), vector.get(30));
+        assertEquals(Integer.valueOf(-1), window.prepend(-1).get(0));
+        assertEquals(Integer.valueOf(10), window.prepend(-1).get(1));
+    }
+
+    @Test
+    public void smallWindowOfLargeVectorCanGrowBothWays() {
+        PersistentVector<Integer> vector = PersistentVector.copyOf(range(100000));
+        PersistentVector<Integer> head = vector.take(3);
+        assertEquals(CollectionOps.of(-1, 0, 1, 2), head.prepend(-1));
+        assertEquals(CollectionOps.of(0, 1, 2, 3), head.append(3));
+        PersistentVector<Integer> middle = vector.drop(50000).take(40);
+        assertEquals(range(100000).subList(50000, 50040), middle);
+        assertEquals(Integer.valueOf(-1), middle.prepend(-1).get(0));
+        assertEquals(Integer.valueOf(50039), middle.prepend(-1).get(40));
+        PersistentVector<Integer> prepended = head;
+        List<Integer> expected = new ArrayList<>(range(3));
+        for (int i = 0; i < 2000; i++) {
+            prepended = prepended.prepend(-i);
+            expected.add(0, -i);
+        }
+        assertEquals(expected, prepended);
+    }
+
+    @Test
+    public void prependPastTwoToTheTwentyFive() {
+        int size = (1 << 25) + 1;
+        PersistentVector.Builder<Integer> builder = new PersistentVector.Builder<>();
+        Integer one = 1;
+        for (int i = 0; i < size; i++) {
+            builder.add(one);
+        }
+        PersistentVector<Integer> vector = builder.build().updated(size - 1, 2);
+        PersistentVector<Integer> prepended = vector.prepend(0).prepend(-1);
+        assertEquals(size + 2, prepended.size());
+        assertEquals(Integer.valueOf(-1), prepended.get(0));
+        assertEquals(Integer.valueOf(0), prepended.get(1));
+        assertEquals(Integer.valueOf(1), prepended.get(2));
+        assertEquals(Integer.valueOf(2), prepended.get(size + 1));
+        assertEquals(CollectionOps.of(0, 1, 1), vector.take(2).prepend(0));
+    }
+
+    @Test
+    public void concat() {
+        PersistentVector<Integer> small = PersistentVector.copyOf(range(3));
+        PersistentVector<Integer> large = PersistentVector.copyOf(range(100));
+        List<Integer> expected = new ArrayList<>(range(3));
+        expected.addAll(range(100));
+        assertEquals(expected, small.concat(large));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutsideWindowFails() {
+        PersistentVector.copyOf(range(10)).drop(5).get(5);
+    }
+
+    private static List<Integer> range(int n) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RecordListTest {
+    private static final RecordCodec<Point> POINT = new RecordCodec<Point>() {
+        @Override
+        public int width() {
+            return 12;
+        }
+
+        @Override
+        public void encode(Point value, ByteBuffer buffer, int offset) {
+            buffer.putInt(offset, value.x);
+            buffer.putLong(offset + 4, value.y);
+        }
+
+        @Override
+        public Point decode(ByteBuffer buffer, int offset) {
+            return new Point(buffer.getInt(offset), buffer.getLong(offset + 4));
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeAndMap() throws Exception {
+        Path path = folder.newFile("points.bin").toPath();
+        List<Point> points = points(1000);
+        assertEquals(1000, FunctionalList.writeRecords(path, points, POINT));
+
+        FunctionalList<Point> mapped = FunctionalList.mapped(path, POINT);
+        assertEquals(points, mapped);
+        assertEquals(new Point(999, 1998), mapped.get(999));
+        assertEquals(points.subList(1, 1000), mapped.tail());
+        assertEquals(points.subList(10, 20), mapped.drop(10).take(10));
+        assertEquals(points.subList(500, 510), mapped.subList(500, 510));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mappingWithWrongWidthFails() throws Exception {
+        Path path = folder.newFile("points.bin").toPath();
+        FunctionalList.writeRecords(path, points(3), POINT);
+        FunctionalList.mapped(path, new RecordCodec<Integer>() {
+            @Override
+            public int width() {
+                return 4;
+            }
+
+            @Override
+            public void encode(Integer value, ByteBuffer buffer, int offset) {
+                buffer.putInt(offset, value);
+            }
+
+            @Override
+            public Integer decode(ByteBuffer buffer, int offset) {
+                return buffer.getInt(offset);
+            }
+        });
+    }
+
+    @Test
+    public void offHeapAcrossSegments() {
+        List<Point> points = points(10);
+        RecordList<Point> list = RecordList.offHeap(points, POINT, 3);
+        assertEquals(points, list);
+        assertEquals(points.subList(2, 8), list.subList(2, 8));
+
+        List<Point> seen = new ArrayList<Point>();
+        assertTrue(list.subList(2, 8).forEachWhile(seen::add));
+        assertEquals(points.subList(2, 8), seen);
+        assertFalse(list.forEachWhile(p -> p.x < 4));
+    }
+
+    @Test
+    public void fromBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(30);
+        buffer.position(6);
+        POINT.encode(new Point(1, 2), buffer, 6);
+        POINT.encode(new Point(3, 4), buffer, 18);
+        assertEquals(Arrays.asList(new Point(1, 2), new Point(3, 4)), FunctionalList.fromBuffer(buffer, POINT));
+    }
+
+    private static List<Point> points(int n) {
+        List<Point> points = new ArrayList<Point>();
+        for (int i = 0; i < n; i++) {
+            points.add(new Point(i, i * 2L));
+        }
+        return points;
+    }
+
+    private static final class Point {
+        final int x;
+        final long y;
+
+        Point(int x, long y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Point && ((Point) o).x == x && ((Point) o).y == y;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * x + Long.hashCode(y);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Point(%s, %s)", x, y);
+        }
+    }
+}
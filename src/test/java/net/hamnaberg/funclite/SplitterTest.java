@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SplitterTest {
+    @Test
+    public void singleCharKeepsEmptyPieces() {
+        assertEquals(FunctionalList.of("a", "", "b", ""), Splitter.on(',').splitToList("a,,b,"));
+    }
+
+    @Test
+    public void separatorIsNotARegex() {
+        assertEquals(FunctionalList.of("1", "2", "3"), CollectionOps.splitter(".").splitToList("1.2.3"));
+        assertEquals(FunctionalList.of("a", "b|c"), Splitter.on("||").splitToList("a||b|c"));
+    }
+
+    @Test
+    public void trimAndOmitEmpty() {
+        Splitter splitter = Splitter.on(',').trimResults().omitEmptyStrings();
+        assertEquals(FunctionalList.of("a", "b"), splitter.splitToList(" a , ,, b "));
+    }
+
+    @Test
+    public void limitKeepsRemainder() {
+        assertEquals(FunctionalList.of("a", "b", "c,d"), Splitter.on(',').limit(3).splitToList("a,b,c,d"));
+    }
+
+    @Test
+    public void worksOnAnyCharSequence() {
+        StringBuilder input = new StringBuilder("x::y::z");
+        assertEquals(FunctionalList.of("x", "y", "z"), Splitter.on("::").splitToList(input));
+    }
+
+    @Test
+    public void onlyTakesWhatIsNeeded() {
+        CountingSequence input = new CountingSequence("a,b,c,d,e,f,g");
+        FunctionalList<String> firstTwo = Splitter.on(',').view(input).take(2).map(CharSequence::toString).toList();
+        assertEquals(FunctionalList.of("a", "b"), firstTwo);
+        assertTrue(input.reads < input.length());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptySeparatorFails() {
+        Splitter.on("");
+    }
+
+    private static final class CountingSequence implements CharSequence {
+        private final String value;
+        private int reads = 0;
+
+        CountingSequence(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int length() {
+            return value.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            reads++;
+            return value.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return value.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
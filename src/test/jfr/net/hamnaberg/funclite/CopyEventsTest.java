@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013 Erlend Hamnaberg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hamnaberg.funclite;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class CopyEventsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void emitsCopyEventsWithElementCount() throws Exception {
+        List<Integer> values = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        Path file = folder.newFile("copy.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable("net.hamnaberg.funclite.Copy").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            FunctionalList.copyOf(values).map(i -> i + 1);
+            MapOps.newHashMap(MapOps.newHashMap("a", 1, "b", 2));
+            FunctionalMap<String, Integer> map = FunctionalMap.create(MapOps.newHashMap("a", 1, "b", 2));
+            map.mapValues(i -> i * 2);
+            map.filterKeys("a"::equals);
+            map.filter(e -> e.getValue() > 1);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<String> seen = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            seen.add(event.getString("operation") + ":" + event.getInt("elements"));
+            assertNotNull(event.getStackTrace());
+        }
+        assertTrue(seen.toString(), seen.contains("FunctionalList.copyOf:1000"));
+        assertTrue(seen.toString(), seen.contains("FunctionalList.map:1000"));
+        assertTrue(seen.toString(), seen.contains("MapOps.newHashMap:2"));
+        assertTrue(seen.toString(), seen.contains("FunctionalMap.mapValues:2"));
+        assertTrue(seen.toString(), seen.contains("FunctionalMap.filterKeys:1"));
+        assertTrue(seen.toString(), seen.contains("FunctionalMap.filter:1"));
+        assertFalse(seen.toString(), seen.contains("CollectionOps.newArrayList:1000"));
+    }
+}